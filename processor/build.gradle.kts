@@ -0,0 +1,20 @@
+plugins {
+    `java-library`
+}
+
+java {
+    toolchain.languageVersion.set(JavaLanguageVersion.of(libs.versions.jvm.get()))
+}
+
+// Tests compile sample models with this processor & load generated validators.
+dependencies {
+    testImplementation(project(":"))
+    testImplementation(libs.gson)
+
+    testImplementation(platform(libs.junit))
+    testImplementation(libs.bundles.test)
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
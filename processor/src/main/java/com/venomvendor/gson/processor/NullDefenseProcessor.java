@@ -0,0 +1,428 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates {@code com.venomvendor.gson.NullDefenseValidator} for every class having fields
+ * marked mandatory, either at class level or at field level.
+ * <p>
+ * Annotation used for marking fields is passed as processor option.
+ * <pre>-Anulldefense.annotation=com.example.Mandatory</pre>
+ * Fields inherited from superclasses are included, hence subclasses of classes having mandatory
+ * fields get a validator as well.
+ * Generated validator reads fields directly, never through getters, as a getter may derive or default its
+ * value &amp; disagree with reflection. Array fields are written the same way, for replacing them with compacted
+ * copies. When a mandatory field is not accessible from package of the class, e.g. it is private, no validator is
+ * generated for that class &amp; {@code NullDefenseTypeAdapterFactory} falls back to reflection. This is reported
+ * as a warning, as models having private fields gain nothing from the processor.
+ */
+@SupportedOptions(NullDefenseProcessor.OPTION_ANNOTATION)
+public final class NullDefenseProcessor extends AbstractProcessor {
+
+    /**
+     * Option holding fully qualified name of annotation, by which fields are marked mandatory.
+     */
+    public static final String OPTION_ANNOTATION = "nulldefense.annotation";
+
+    /* Implemented by generated classes */
+    private static final String VALIDATOR = "com.venomvendor.gson.NullDefenseValidator";
+    /* Appended to name of validated class */
+    private static final String SUFFIX = "_NullDefenseValidator";
+    /* Boxed primitives are never validated */
+    private static final Set<String> WRAPPERS = Set.of(
+            Boolean.class.getName(), Byte.class.getName(), Character.class.getName(),
+            Double.class.getName(), Float.class.getName(), Integer.class.getName(),
+            Long.class.getName(), Short.class.getName(), Void.class.getName());
+
+    /* Fully qualified name of annotation */
+    private String annotationName;
+    private Elements elements;
+    private Types types;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        annotationName = processingEnv.getOptions().get(OPTION_ANNOTATION);
+        if (annotationName == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    OPTION_ANNOTATION + " is not set, no validator is generated");
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        if (annotationName == null) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(annotationName);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = annotationName == null ? null : elements.getTypeElement(annotationName);
+        if (annotation == null || annotations.isEmpty()) {
+            return false;
+        }
+
+        Set<TypeElement> classes = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind().isClass()) {
+                classes.add((TypeElement) element);
+            } else if (element.getKind() == ElementKind.FIELD) {
+                classes.add((TypeElement) element.getEnclosingElement());
+            }
+        }
+
+        // Subclasses inherit mandatory fields, even when not marked themselves
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            collectSubclasses(type, annotation, classes);
+        }
+
+        for (TypeElement type : classes) {
+            generate(type, annotation);
+        }
+
+        // Annotation belongs to user, let others process it as well.
+        return false;
+    }
+
+    /**
+     * Adds given class &amp; its nested classes, when any of their superclasses has mandatory fields.
+     *
+     * @param type       class in current round
+     * @param annotation annotation by which fields are marked mandatory
+     * @param classes    classes to generate validator for
+     */
+    private void collectSubclasses(TypeElement type, TypeElement annotation, Set<TypeElement> classes) {
+        if (type.getKind().isClass()) {
+            for (TypeElement current = superclass(type); current != null; current = superclass(current)) {
+                if (hasMarkedFields(current, annotation)) {
+                    classes.add(type);
+                    break;
+                }
+            }
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            collectSubclasses(nested, annotation, classes);
+        }
+    }
+
+    /**
+     * @param type       class in hierarchy
+     * @param annotation annotation by which fields are marked mandatory
+     * @return {@code true} if class declares any mandatory field
+     */
+    private boolean hasMarkedFields(TypeElement type, TypeElement annotation) {
+        boolean isMarkedInClz = isMarked(elements.getAllAnnotationMirrors(type), annotation);
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (!isSkipped(field) && (isMarkedInClz || isMarked(field.getAnnotationMirrors(), annotation))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param type class in hierarchy
+     * @return superclass, {@code null} once a JDK class is reached as those are never marked
+     */
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) types.asElement(superclass);
+        String name = element.getQualifiedName().toString();
+        if (name.startsWith("java.") || name.startsWith("javax.")) {
+            return null;
+        }
+        return element;
+    }
+
+    /**
+     * Writes validator for given class.
+     *
+     * @param type       class having mandatory fields
+     * @param annotation annotation by which fields are marked mandatory
+     */
+    private void generate(TypeElement type, TypeElement annotation) {
+        if (!isAccessible(type)) {
+            warn(type, "is private");
+            return;
+        }
+
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        List<String> names = new ArrayList<>();
+        List<String> fieldTypes = new ArrayList<>();
+        List<String> reads = new ArrayList<>();
+        List<String> writes = new ArrayList<>();
+
+        // Same order as reflection, declared fields first & then those of superclasses
+        for (TypeElement current = type; current != null; current = superclass(current)) {
+            boolean isMarkedInClz = isMarked(elements.getAllAnnotationMirrors(current), annotation);
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (isSkipped(field) || !(isMarkedInClz || isMarked(field.getAnnotationMirrors(), annotation))) {
+                    continue;
+                }
+                String read = read(field, packageName);
+                if (read == null) {
+                    warn(field, "is not accessible from package of " + type);
+                    return;
+                }
+                names.add(field.getSimpleName().toString());
+                fieldTypes.add(types.erasure(field.asType()).toString());
+                reads.add(read);
+                writes.add(write(field, packageName));
+            }
+        }
+
+        // Binary name is kept, for validated class to be known by name of validator, e.g. by shrinkers
+        String binaryName = elements.getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + SUFFIX;
+        String source = render(packageName, simpleName, typeName(type), annotation, names, fieldTypes, reads,
+                writes);
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + qualifiedName + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Static fields are not part of an object, while primitives &amp; their boxed types
+     * are never validated.
+     *
+     * @param field declared variable in class
+     * @return {@code true} if field can never be mandatory
+     */
+    private boolean isSkipped(VariableElement field) {
+        TypeMirror type = field.asType();
+        return field.getModifiers().contains(Modifier.STATIC)
+                || type.getKind().isPrimitive()
+                || WRAPPERS.contains(types.erasure(type).toString());
+    }
+
+    /**
+     * @param type class to inspect
+     * @return {@code true} if class &amp; all its enclosing classes are visible in its package
+     */
+    private static boolean isAccessible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param mirrors    annotations present on an element
+     * @param annotation annotation by which fields are marked mandatory
+     * @return {@code true} if annotation is present
+     */
+    private boolean isMarked(List<? extends AnnotationMirror> mirrors, TypeElement annotation) {
+        for (AnnotationMirror mirror : mirrors) {
+            if (types.isSameType(mirror.getAnnotationType(), annotation.asType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param field       mandatory field, declared by validated class or any of its superclasses
+     * @param packageName package of generated validator
+     * @return expression reading field from {@code target}, {@code null} if field cannot be read
+     */
+    private String read(VariableElement field, String packageName) {
+        if (!isAccessible(field, packageName)) {
+            return null;
+        }
+        return "target." + field.getSimpleName();
+    }
+
+    /**
+     * @param field       mandatory field, declared by validated class or any of its superclasses
+     * @param packageName package of generated validator
+     * @return statement writing {@code value} to field of {@code target}, {@code null} if field is
+     * not an array or cannot be written
+     */
+    private String write(VariableElement field, String packageName) {
+        if (field.asType().getKind() != TypeKind.ARRAY
+                || field.getModifiers().contains(Modifier.FINAL)
+                || !isAccessible(field, packageName)) {
+            return null;
+        }
+        return "target." + field.getSimpleName() + " = (" + types.erasure(field.asType()) + ") value;";
+    }
+
+    /**
+     * @param member      field
+     * @param packageName package of generated validator
+     * @return {@code true} if member can be accessed from generated validator
+     */
+    private boolean isAccessible(Element member, String packageName) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !modifiers.contains(Modifier.PRIVATE)
+                && elements.getPackageOf(member).getQualifiedName().contentEquals(packageName);
+    }
+
+    /**
+     * @param type validated class
+     * @return name of class usable in source, with wildcards for type parameters
+     */
+    private String typeName(TypeElement type) {
+        String name = types.erasure(type.asType()).toString();
+        int parameters = type.getTypeParameters().size();
+        if (parameters == 0) {
+            return name;
+        }
+        return name + "<" + String.join(", ", Collections.nCopies(parameters, "?")) + ">";
+    }
+
+    private void warn(Element element, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                element + " " + reason + ", no validator is generated & reflection is used instead", element);
+    }
+
+    private static String render(String packageName, String simpleName, String typeName, TypeElement annotation,
+                                 List<String> names, List<String> fieldTypes, List<String> reads,
+                                 List<String> writes) {
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * Generated by ").append(NullDefenseProcessor.class.getName())
+                .append(", do not modify.\n */\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements ").append(VALIDATOR).append('<').append(typeName).append("> {\n\n")
+                .append("    private static final String[] NAMES = {");
+        for (int index = 0; index < names.size(); index++) {
+            source.append(index == 0 ? "" : ", ").append('"').append(names.get(index)).append('"');
+        }
+        source.append("};\n")
+                .append("    private static final Class<?>[] TYPES = {");
+        for (int index = 0; index < fieldTypes.size(); index++) {
+            source.append(index == 0 ? "" : ", ").append(fieldTypes.get(index)).append(".class");
+        }
+        source.append("};\n\n")
+                .append("    @Override\n")
+                .append("    public Class<? extends java.lang.annotation.Annotation> annotationType() {\n")
+                .append("        return ").append(annotation.getQualifiedName()).append(".class;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public int size() {\n")
+                .append("        return NAMES.length;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public String name(int index) {\n")
+                .append("        return NAMES[index];\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public Class<?> type(int index) {\n")
+                .append("        return TYPES[index];\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public Object get(").append(typeName).append(" target, int index) {\n")
+                .append("        switch (index) {\n");
+        for (int index = 0; index < reads.size(); index++) {
+            source.append("            case ").append(index).append(":\n")
+                    .append("                return ").append(reads.get(index)).append(";\n");
+        }
+        source.append("            default:\n")
+                .append("                throw new IndexOutOfBoundsException(String.valueOf(index));\n")
+                .append("        }\n")
+                .append("    }\n");
+        if (writes.stream().anyMatch(write -> write != null)) {
+            renderWrites(source, typeName, writes);
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static void renderWrites(StringBuilder source, String typeName, List<String> writes) {
+        source.append("\n")
+                .append("    @Override\n")
+                .append("    public boolean isWritable(int index) {\n")
+                .append("        switch (index) {\n");
+        for (int index = 0; index < writes.size(); index++) {
+            if (writes.get(index) != null) {
+                source.append("            case ").append(index).append(":\n");
+            }
+        }
+        source.append("                return true;\n")
+                .append("            default:\n")
+                .append("                return false;\n")
+                .append("        }\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public void set(").append(typeName).append(" target, int index, Object value) {\n")
+                .append("        switch (index) {\n");
+        for (int index = 0; index < writes.size(); index++) {
+            if (writes.get(index) != null) {
+                source.append("            case ").append(index).append(":\n")
+                        .append("                ").append(writes.get(index)).append('\n')
+                        .append("                return;\n");
+            }
+        }
+        source.append("            default:\n")
+                .append("                throw new UnsupportedOperationException(")
+                .append("\"Field is not writable: \" + index);\n")
+                .append("        }\n")
+                .append("    }\n");
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson.processor;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.venomvendor.gson.NullDefenseTypeAdapterFactory;
+import com.venomvendor.gson.NullDefenseValidator;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests for generated validators")
+@TestInstance(value = TestInstance.Lifecycle.PER_CLASS)
+class NullDefenseProcessorTest {
+
+    private static final String MANDATORY = "package sample;\n"
+            + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+            + "public @interface Mandatory { }\n";
+
+    private static final String PARENT = "package sample;\n"
+            + "import java.util.List;\n"
+            + "public class Parent {\n"
+            + "    @Mandatory String name;\n"
+            + "    @Mandatory List<Child> children;\n"
+            + "    @Mandatory int age;\n"
+            + "    private String nickName;\n"
+            + "}\n";
+
+    private static final String CHILD = "package sample;\n"
+            + "@Mandatory\n"
+            + "public class Child {\n"
+            + "    String name;\n"
+            + "}\n";
+
+    private static final String ORPHAN = "package sample;\n"
+            + "public class Orphan {\n"
+            + "    @Mandatory private String name;\n"
+            + "}\n";
+
+    private static final String NAMED = "package sample;\n"
+            + "public class Named {\n"
+            + "    @Mandatory private String name;\n"
+            + "    public String getName() { return name == null ? \"\" : name; }\n"
+            + "}\n";
+
+    private static final String PET = "package sample;\n"
+            + "public class Pet extends Orphan {\n"
+            + "}\n";
+
+    private static final String DOG = "package sample;\n"
+            + "public class Dog extends Base {\n"
+            + "    @Mandatory String breed;\n"
+            + "}\n";
+
+    private static final String BASE = "package sample;\n"
+            + "public abstract class Base {\n"
+            + "    @Mandatory protected String id;\n"
+            + "}\n";
+
+    private static final String FAMILY = "package sample;\n"
+            + "public class Family {\n"
+            + "    @Mandatory Child[] children;\n"
+            + "    @Mandatory String[] tags;\n"
+            + "    @Mandatory final String[] names = {};\n"
+            + "}\n";
+
+    private static final String OUTER = "package sample;\n"
+            + "public class Outer {\n"
+            + "    public static class Inner {\n"
+            + "        @Mandatory String name;\n"
+            + "    }\n"
+            + "}\n";
+
+    private ClassLoader classLoader;
+    private Path output;
+    /* Diagnostics printed while compiling */
+    private String diagnostics;
+
+    @BeforeAll
+    void setUp() throws IOException {
+        Path sources = Files.createTempDirectory("nulldefense-sources");
+        output = Files.createTempDirectory("nulldefense-classes");
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", NullDefenseProcessor.class.getName(),
+                "-A" + NullDefenseProcessor.OPTION_ANNOTATION + "=sample.Mandatory",
+                "-d", output.toString(),
+                "-s", output.toString()));
+        arguments.add(write(sources, "Mandatory", MANDATORY));
+        arguments.add(write(sources, "Parent", PARENT));
+        arguments.add(write(sources, "Child", CHILD));
+        arguments.add(write(sources, "Orphan", ORPHAN));
+        arguments.add(write(sources, "Named", NAMED));
+        arguments.add(write(sources, "Pet", PET));
+        arguments.add(write(sources, "Dog", DOG));
+        arguments.add(write(sources, "Base", BASE));
+        arguments.add(write(sources, "Family", FAMILY));
+        arguments.add(write(sources, "Outer", OUTER));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        assertEquals(0, compiler.run(null, null, errors, arguments.toArray(new String[0])));
+        diagnostics = errors.toString(StandardCharsets.UTF_8);
+
+        classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    private static String write(Path directory, String name, String source) throws IOException {
+        File file = directory.resolve(name + ".java").toFile();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        return file.getAbsolutePath();
+    }
+
+    @SuppressWarnings("unchecked")
+    private NullDefenseValidator<Object> validator(String name) throws ReflectiveOperationException {
+        return (NullDefenseValidator<Object>) classLoader
+                .loadClass("sample." + name + NullDefenseValidator.SUFFIX)
+                .getDeclaredConstructor()
+                .newInstance();
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Validator lists mandatory, non primitive fields")
+    void shouldGenerateValidator() throws ReflectiveOperationException {
+        NullDefenseValidator<Object> validator = validator("Parent");
+
+        assertEquals("sample.Mandatory", validator.annotationType().getName());
+        assertEquals(2, validator.size());
+        assertEquals("name", validator.name(0));
+        assertEquals(String.class, validator.type(0));
+        assertEquals("children", validator.name(1));
+        assertEquals(List.class, validator.type(1));
+
+        assertNull(validator.get(classLoader.loadClass("sample.Parent")
+                .getDeclaredConstructor().newInstance(), 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> validator.get(null, 2));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Class level annotation marks all non primitive fields")
+    void shouldGenerateClassLevelValidator() throws ReflectiveOperationException {
+        NullDefenseValidator<Object> validator = validator("Child");
+
+        assertEquals(1, validator.size());
+        assertEquals("name", validator.name(0));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Private field is left to reflection, even with a getter")
+    void shouldNotGenerateValidator() {
+        assertThrows(ClassNotFoundException.class, () -> validator("Orphan"));
+        // Getter defaults its value, which would disagree with reflection
+        assertThrows(ClassNotFoundException.class, () -> validator("Named"));
+
+        // Reported as warning, not to be missed
+        assertTrue(diagnostics.contains("warning: name is not accessible from package of sample.Orphan"),
+                diagnostics);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Factory validates through generated validator")
+    @SuppressWarnings("unchecked")
+    void shouldValidateWithGeneratedValidator() throws ReflectiveOperationException {
+        Class<? extends Annotation> mandatory =
+                (Class<? extends Annotation>) classLoader.loadClass("sample.Mandatory");
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(mandatory))
+                .create();
+        Class<?> parentClass = classLoader.loadClass("sample.Parent");
+
+        Object parent = gson.fromJson("{\"name\":\"VenomVendor\",\"children\":[{\"name\":\"Queen\"},{}]}",
+                parentClass);
+        assertNotNull(parent);
+        assertEquals(1, ((List<?>) validator("Parent").get(parent, 1)).size());
+
+        assertNull(gson.fromJson("{\"name\":\"VenomVendor\",\"children\":[{}]}", parentClass));
+        assertTrue(Files.exists(output.resolve("sample/Parent" + NullDefenseValidator.SUFFIX + ".java")));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Validator includes fields of superclasses")
+    void shouldGenerateInheritedValidator() throws ReflectiveOperationException {
+        NullDefenseValidator<Object> validator = validator("Dog");
+
+        assertEquals(2, validator.size());
+        assertEquals("breed", validator.name(0));
+        assertEquals("id", validator.name(1));
+
+        // Inherited field is not accessible
+        assertThrows(ClassNotFoundException.class, () -> validator("Pet"));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Array fields are writable, unless final")
+    void shouldGenerateWritableValidator() throws ReflectiveOperationException {
+        NullDefenseValidator<Object> validator = validator("Family");
+        Object family = classLoader.loadClass("sample.Family").getDeclaredConstructor().newInstance();
+
+        assertTrue(validator.isWritable(0));
+        assertTrue(validator.isWritable(1));
+        assertFalse(validator.isWritable(2));
+        assertFalse(validator("Parent").isWritable(1));
+
+        validator.set(family, 1, new String[]{"royal"});
+        assertArrayEquals(new String[]{"royal"}, (String[]) validator.get(family, 1));
+        assertThrows(UnsupportedOperationException.class, () -> validator.set(family, 2, new String[0]));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Nested class keeps its binary name, to be mapped back by shrinkers")
+    @SuppressWarnings("unchecked")
+    void shouldGenerateNestedValidator() throws ReflectiveOperationException {
+        NullDefenseValidator<Object> validator = validator("Outer$Inner");
+        assertEquals(1, validator.size());
+        assertEquals("name", validator.name(0));
+        assertThrows(ClassNotFoundException.class, () -> validator("Outer_Inner"));
+
+        Class<? extends Annotation> mandatory =
+                (Class<? extends Annotation>) classLoader.loadClass("sample.Mandatory");
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(mandatory))
+                .create();
+        Class<?> innerClass = classLoader.loadClass("sample.Outer$Inner");
+        assertNotNull(gson.fromJson("{\"name\":\"VenomVendor\"}", innerClass));
+        assertNull(gson.fromJson("{}", innerClass));
+    }
+}
@@ -27,3 +27,5 @@ dependencyResolutionManagement {
 }
 
 rootProject.name = "gson-nulldefense"
+
+include(":processor")
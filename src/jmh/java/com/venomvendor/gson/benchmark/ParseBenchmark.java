@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.venomvendor.gson.NullDefenseTransformer;
+import com.venomvendor.gson.NullDefenseTypeAdapterFactory;
+import com.venomvendor.gson.NullDefenseVerifier;
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.model.ParentTest;
+import com.venomvendor.gson.util.PayloadGeneratorTest;
+import com.venomvendor.gson.util.ResourceHelperTest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares plain Gson against Gson having {@link NullDefenseTypeAdapterFactory} registered.
+ * <p>
+ * Payloads are generated by {@link PayloadGeneratorTest}, varying number of children per parent,
+ * nesting depth of arrays around parents &amp; share of invalid children. Run with {@code -prof gc}
+ * for {@code gc.alloc.rate.norm}, which {@code ./gradlew jmh} does by default.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+
+        /* Children per parent */
+        @Param({"10", "1000"})
+        int size;
+        /* Arrays wrapping parents, within top level array */
+        @Param({"0", "2"})
+        int depth;
+        /* Share of children, missing a mandatory field */
+        @Param({"0.0", "0.1", "0.5"})
+        double invalidRatio;
+
+        String json;
+        Type type;
+
+        @Setup
+        public void setUp() throws IOException {
+            PayloadGeneratorTest generator = PayloadGeneratorTest.of(size, depth, invalidRatio);
+            StringWriter output = new StringWriter();
+            generator.write(output, 1);
+            json = output.toString();
+            type = generator.type();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Fixture {
+
+        /* Input used by performance test */
+        String json;
+
+        @Setup
+        public void setUp() {
+            json = ResourceHelperTest.getInputForTest(this, "large-input.json");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Parsers {
+
+        Gson plain;
+        Gson defensive;
+        Gson streaming;
+
+        @Setup
+        public void setUp() {
+            plain = new Gson();
+            defensive = new GsonBuilder()
+                    .registerTypeAdapterFactory(NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                            .build())
+                    .create();
+            streaming = new GsonBuilder()
+                    .registerTypeAdapterFactory(NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                            .validateWhileReading()
+                            .build())
+                    .create();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Walkers {
+
+        NullDefenseVerifier verifier;
+        NullDefenseTransformer transformer;
+
+        @Setup
+        public void setUp(Payload payload) {
+            NullDefenseTypeAdapterFactory factory = NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                    .build();
+            Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+            verifier = NullDefenseVerifier.of(factory, gson, TypeToken.get(payload.type));
+            transformer = NullDefenseTransformer.of(factory, gson, TypeToken.get(payload.type));
+        }
+    }
+
+    @Benchmark
+    public Object plainGson(Parsers parsers, Payload payload) {
+        return parsers.plain.fromJson(payload.json, payload.type);
+    }
+
+    @Benchmark
+    public Object nullDefense(Parsers parsers, Payload payload) {
+        return parsers.defensive.fromJson(payload.json, payload.type);
+    }
+
+    @Benchmark
+    public Object nullDefenseWhileReading(Parsers parsers, Payload payload) {
+        return parsers.streaming.fromJson(payload.json, payload.type);
+    }
+
+    @Benchmark
+    public boolean verifyOnly(Walkers walkers, Payload payload) {
+        return walkers.verifier.verify(new StringReader(payload.json)).isValid();
+    }
+
+    @Benchmark
+    public String roundTrip(Parsers parsers, Payload payload) {
+        Object parsed = parsers.defensive.fromJson(payload.json, payload.type);
+        return parsers.defensive.toJson(parsed);
+    }
+
+    @Benchmark
+    public String transformOnly(Walkers walkers, Payload payload) {
+        StringWriter output = new StringWriter(payload.json.length());
+        walkers.transformer.transform(new StringReader(payload.json), output);
+        return output.toString();
+    }
+
+    @Benchmark
+    public ParentTest plainGsonLargeInput(Parsers parsers, Fixture fixture) {
+        return parsers.plain.fromJson(fixture.json, ParentTest.class);
+    }
+
+    @Benchmark
+    public ParentTest nullDefenseLargeInput(Parsers parsers, Fixture fixture) {
+        return parsers.defensive.fromJson(fixture.json, ParentTest.class);
+    }
+}
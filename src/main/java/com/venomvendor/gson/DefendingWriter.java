@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writer which omits {@code null} elements of collections &amp; arrays, while writing straight to actual writer.
+ * <p>
+ * Invalid objects are written as {@code null} by a {@code DefensiveAdapter}, hence are omitted
+ * from collections &amp; arrays as well. Only arrays marked by {@link #omitNullElements()} are affected,
+ * others, such as key &amp; value pairs of maps having complex keys, are written as is. All other calls are
+ * forwarded to the actual writer.
+ */
+final class DefendingWriter extends JsonWriter {
+
+    /* All writes happen on actual writer */
+    private static final Writer UNWRITABLE = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    /* Actual writer */
+    private final JsonWriter out;
+    /* Nesting of current value, relative to when wrapping started */
+    private int depth;
+    /* When true, value at that depth is an array whose null elements are omitted */
+    private boolean[] omitting = new boolean[8];
+    /* When true, next array begun omits its null elements */
+    private boolean omitNext;
+
+    private DefendingWriter(JsonWriter out) {
+        super(UNWRITABLE);
+        this.out = out;
+        setStrictness(out.getStrictness());
+        setHtmlSafe(out.isHtmlSafe());
+        setSerializeNulls(out.getSerializeNulls());
+    }
+
+    /**
+     * @param out writer received from Gson
+     * @return writer omitting {@code null} elements of arrays
+     */
+    static DefendingWriter wrap(JsonWriter out) {
+        return out instanceof DefendingWriter ? (DefendingWriter) out : new DefendingWriter(out);
+    }
+
+    /**
+     * Marks next array begun, as being written by Gson's adapter of collections or arrays.
+     */
+    void omitNullElements() {
+        omitNext = true;
+    }
+
+    private void push(boolean omit) {
+        if (depth == omitting.length) {
+            omitting = Arrays.copyOf(omitting, depth * 2);
+        }
+        omitting[depth++] = omit;
+        omitNext = false;
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        out.beginArray();
+        push(omitNext);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        out.endArray();
+        depth--;
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        out.beginObject();
+        push(false);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        out.endObject();
+        depth--;
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        out.name(name);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        out.value(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        out.value(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        out.value(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(float value) throws IOException {
+        out.value(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        out.value(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        out.value(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        out.value(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (depth > 0 && omitting[depth - 1]) {
+            // Omitted from collections & arrays
+            return this;
+        }
+        out.nullValue();
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        out.jsonValue(value);
+        return this;
+    }
+
+    @Override
+    public boolean isLenient() {
+        return out.isLenient();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
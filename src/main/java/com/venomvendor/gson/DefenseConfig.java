@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options of a {@link NullDefenseTypeAdapterFactory}, built once by its builder.
+ * <p>
+ * All fields are final, hence the configuration is safely published to every adapter
+ * &amp; is read without any synchronization while parsing.
+ */
+final class DefenseConfig {
+
+    /* Annotation by which variables are marked mandatory */
+    final Class<? extends Annotation> annotatedType;
+    /* When true, Collection#size() == 0 is removed */
+    final boolean discardEmpty;
+    /* When true, collections which are not mandatory are compacted as well */
+    final boolean compactAll;
+    /* When true, objects are rejected as soon as a mandatory field is read as null */
+    final boolean validateWhileReading;
+    /* When true, invalid objects are written as null & omitted from arrays */
+    final boolean defendWhileWriting;
+    /* When true, mandatory fields are checked in order of observed rejections */
+    final boolean adaptiveOrder;
+    /* Rules by annotation marking fields they check, unmodifiable */
+    final Map<Class<? extends Annotation>, NullDefenseRule<?>> rules;
+    /* Pool validating elements of large collections, null when validated on calling thread */
+    final ForkJoinPool parallelPool;
+    /* Minimum size of collection, to be validated in parallel */
+    final int parallelThreshold;
+    /* Maximum number of classes, whose mandatory fields are cached */
+    final int maxCachedTypes;
+    /* Maximum nesting of objects & containers, walked by sanitize & validate */
+    final int maxDepth;
+    /* Receives events of validation */
+    final NullDefenseListener listener;
+    /* When false, no event is reported & validation is not timed */
+    final boolean instrumented;
+    /* Share of discards reported along with their path, 0 when diagnostics are off */
+    final double sampleRate;
+    /* When true, paths of sampled discards are reported */
+    final boolean diagnosed;
+    /* Mandatory fields per class, shared by all adapters created with this configuration */
+    final PlanCache plans;
+
+    DefenseConfig(Class<? extends Annotation> annotatedType, boolean discardEmpty, boolean compactAll,
+                  boolean validateWhileReading, boolean defendWhileWriting, boolean adaptiveOrder,
+                  Map<Class<? extends Annotation>, NullDefenseRule<?>> rules, ForkJoinPool parallelPool,
+                  int parallelThreshold, int maxCachedTypes, int maxDepth, NullDefenseListener listener,
+                  double sampleRate) {
+        this.annotatedType = annotatedType;
+        this.discardEmpty = discardEmpty;
+        this.compactAll = compactAll;
+        this.validateWhileReading = validateWhileReading;
+        this.defendWhileWriting = defendWhileWriting;
+        this.adaptiveOrder = adaptiveOrder;
+        this.rules = rules;
+        this.parallelPool = parallelPool;
+        this.parallelThreshold = parallelThreshold;
+        this.maxCachedTypes = maxCachedTypes;
+        this.maxDepth = maxDepth;
+        this.listener = listener;
+        this.instrumented = listener != NullDefenseListener.NONE;
+        this.sampleRate = sampleRate;
+        this.diagnosed = instrumented && sampleRate > 0;
+        this.plans = new PlanCache(annotatedType, compactAll, adaptiveOrder, rules, maxCachedTypes, diagnosed);
+    }
+
+    /**
+     * @return {@code true} if large collections are validated in parallel
+     */
+    boolean isParallel() {
+        return parallelPool != null;
+    }
+}
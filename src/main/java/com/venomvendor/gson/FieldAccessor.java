@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reads value of a single field, resolved once when its class is first seen.
+ * Array, collection &amp; map fields can be written as well, for replacing them with compacted copies.
+ * Instances are immutable &amp; safe to share between threads.
+ */
+abstract class FieldAccessor {
+
+    /**
+     * Creates accessor backed by reflection, field is made accessible only once here,
+     * hence reads never toggle accessibility of shared {@link Field}.
+     *
+     * @param field declared variable
+     * @return accessor for given field
+     * @throws RuntimeException if field cannot be accessed
+     */
+    static FieldAccessor of(Field field) {
+        return of(field, false);
+    }
+
+    /**
+     * Same as {@link #of(Field)}, optionally writable irrespective of type of field.
+     *
+     * @param field    declared variable
+     * @param writable when true, field can be written unless it is final, else only arrays, collections
+     *                 &amp; maps are writable
+     * @return accessor for given field
+     * @throws RuntimeException if field cannot be accessed
+     */
+    static FieldAccessor of(Field field, boolean writable) {
+        try {
+            field.setAccessible(true);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to access field: " + field.getName(), e);
+        }
+        Class<?> type = field.getType();
+        boolean settable = writable
+                ? !Modifier.isFinal(field.getModifiers())
+                : type.isArray() || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type);
+        return new ReflectiveAccessor(field, settable);
+    }
+
+    /**
+     * Creates accessor backed by a generated validator, no reflection is involved.
+     *
+     * @param validator generated validator of declaring class
+     * @param index     index of field in validator
+     * @return accessor for field at given index
+     */
+    static FieldAccessor of(NullDefenseValidator<Object> validator, int index) {
+        return new GeneratedAccessor(validator, index);
+    }
+
+    /**
+     * @param target object holding the field
+     * @return current value of field
+     */
+    abstract Object get(Object target);
+
+    /**
+     * @return {@code true} if field can be written through {@link #set(Object, Object)}
+     */
+    abstract boolean isWritable();
+
+    /**
+     * @param target object holding the field
+     * @param value  new value of field
+     * @throws UnsupportedOperationException if field is not writable
+     */
+    abstract void set(Object target, Object value);
+
+    /**
+     * Accessor reading accessible {@link Field}.
+     */
+    private static final class ReflectiveAccessor extends FieldAccessor {
+        /* Accessible field */
+        private final Field field;
+        /* When false, field is never written */
+        private final boolean writable;
+
+        ReflectiveAccessor(Field field, boolean writable) {
+            this.field = field;
+            this.writable = writable;
+        }
+
+        @Override
+        Object get(Object target) {
+            try {
+                return field.get(target);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Failed to access field: " + field.getName(), e);
+            }
+        }
+
+        @Override
+        boolean isWritable() {
+            return writable;
+        }
+
+        @Override
+        void set(Object target, Object value) {
+            if (!writable) {
+                throw new UnsupportedOperationException("Field is not writable: " + field.getName());
+            }
+            try {
+                field.set(target, value);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Failed to access field: " + field.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Accessor delegating to generated validator.
+     */
+    private static final class GeneratedAccessor extends FieldAccessor {
+        /* Generated validator of declaring class */
+        private final NullDefenseValidator<Object> validator;
+        /* Index of field in validator */
+        private final int index;
+
+        GeneratedAccessor(NullDefenseValidator<Object> validator, int index) {
+            this.validator = validator;
+            this.index = index;
+        }
+
+        @Override
+        Object get(Object target) {
+            return validator.get(target, index);
+        }
+
+        @Override
+        boolean isWritable() {
+            return validator.isWritable(index);
+        }
+
+        @Override
+        void set(Object target, Object value) {
+            validator.set(target, index, value);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Removes {@code null} from collections, maps &amp; arrays, without allocating when there is
+ * nothing to remove.
+ * <p>
+ * Lists with random access are compacted in place by index, other collections are scanned
+ * with {@link Collection#contains(Object)} before falling back to {@link Collection#removeIf}.
+ * Maps are scanned with {@link Map#containsKey(Object)} &amp; {@link Map#containsValue(Object)},
+ * while arrays are copied into right-sized arrays of same component type. Collections &amp; maps which
+ * cannot be modified are left as is, for callers to replace them by compacted copies.
+ */
+final class NullCompaction {
+
+    private NullCompaction() {
+        throw new AssertionError("No instances");
+    }
+
+    /**
+     * @param collection collection to compact
+     * @return number of {@code null} removed
+     */
+    static int removeNulls(Collection<?> collection) {
+        if (collection instanceof List && collection instanceof RandomAccess) {
+            return removeNulls((List<?>) collection);
+        }
+        try {
+            if (!collection.contains(null)) {
+                return 0;
+            }
+        } catch (NullPointerException e) {
+            // Collection does not permit null, hence holds none.
+            return 0;
+        }
+        int size = collection.size();
+        collection.removeIf(Objects::isNull);
+        return size - collection.size();
+    }
+
+    /**
+     * Removes entries having {@code null} key or {@code null} value.
+     *
+     * @param map map to compact
+     * @return number of entries removed
+     */
+    static int removeNulls(Map<?, ?> map) {
+        boolean nullKey = containsNull(map.keySet());
+        boolean nullValue = containsNull(map.values());
+        if (!nullKey && !nullValue) {
+            return 0;
+        }
+
+        int size = map.size();
+        if (nullKey) {
+            map.remove(null);
+        }
+        if (nullValue) {
+            map.values().removeIf(Objects::isNull);
+        }
+        return size - map.size();
+    }
+
+    /**
+     * @param array array to scan
+     * @return number of {@code null} elements
+     */
+    static int countNulls(Object[] array) {
+        int nulls = 0;
+        for (Object element : array) {
+            if (element == null) {
+                nulls++;
+            }
+        }
+        return nulls;
+    }
+
+    /**
+     * Size of collection once compacted, without modifying it.
+     *
+     * @param collection collection to scan
+     * @return number of non-null elements
+     */
+    static int countNonNull(Collection<?> collection) {
+        if (!containsNull(collection)) {
+            return collection.size();
+        }
+        int count = 0;
+        for (Object element : collection) {
+            if (element != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Size of map once compacted, without modifying it.
+     *
+     * @param map map to scan
+     * @return number of entries having both key &amp; value
+     */
+    static int countNonNull(Map<?, ?> map) {
+        if (!containsNull(map.keySet()) && !containsNull(map.values())) {
+            return map.size();
+        }
+        int count = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param array array holding {@code nulls} null elements
+     * @param nulls number of {@code null} elements, as counted by {@link #countNulls(Object[])}
+     * @return right-sized copy of same component type, without {@code null}
+     */
+    static Object[] withoutNulls(Object[] array, int nulls) {
+        Object[] copy = Arrays.copyOf(array, array.length - nulls);
+        int kept = 0;
+        for (Object element : array) {
+            if (element != null) {
+                copy[kept++] = element;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Copies a collection which cannot be compacted in place.
+     *
+     * @param collection collection holding {@code null}
+     * @return copy without {@code null} keeping order, a {@link LinkedHashSet} for sets, else an {@link ArrayList}
+     */
+    static Collection<Object> withoutNulls(Collection<?> collection) {
+        Collection<Object> copy = collection instanceof Set
+                ? new LinkedHashSet<>() : new ArrayList<>(collection.size());
+        for (Object element : collection) {
+            if (element != null) {
+                copy.add(element);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Copies a map which cannot be compacted in place.
+     *
+     * @param map map holding {@code null} key or value
+     * @return copy without entries having {@code null} key or value, keeping order
+     */
+    static Map<Object, Object> withoutNulls(Map<?, ?> map) {
+        Map<Object, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                copy.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @param view keys or values of a map
+     * @return {@code true} if view holds {@code null}
+     */
+    private static boolean containsNull(Collection<?> view) {
+        try {
+            return view.contains(null);
+        } catch (NullPointerException e) {
+            // Map does not permit null, hence holds none.
+            return false;
+        }
+    }
+
+    /**
+     * Removes first {@code null}, then moves remaining non-null elements towards the head, keeping their order
+     * &amp; drops the tail. Lists which cannot be resized fail on first removal, before any element is moved.
+     *
+     * @param list list with random access
+     * @return number of {@code null} removed
+     * @throws UnsupportedOperationException if list cannot be resized, list is left unchanged
+     */
+    private static <E> int removeNulls(List<E> list) {
+        int size = list.size();
+        int index = 0;
+        while (index < size && list.get(index) != null) {
+            index++;
+        }
+        if (index == size) {
+            return 0;
+        }
+
+        // Structural change first, nothing is written unless list can be resized
+        list.remove(index);
+        int kept = index;
+        int left = size - 1;
+        for (; index < left; index++) {
+            E element = list.get(index);
+            if (element != null) {
+                list.set(kept++, element);
+            }
+        }
+        list.subList(kept, left).clear();
+        return size - kept;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Parses many independent JSON documents of the same type concurrently, on a given executor.
+ * <p>
+ * Documents are read by Gson, which must have {@link NullDefenseTypeAdapterFactory} registered, hence each
+ * document is validated exactly as by {@code fromJson}. Mandatory fields are resolved once per class &amp;
+ * shared by all tasks without locking. Documents are split in chunks, each chunk is a single task.
+ * Any executor works, e.g. {@code Executors.newVirtualThreadPerTaskExecutor()} where available.
+ * <pre>
+ * NullDefenseBatch&lt;Child&gt; batch = NullDefenseBatch.of(gson, TypeToken.get(Child.class), executor);
+ * NullDefenseBatch.Result&lt;Child&gt; result = batch.parseStrings(messages);
+ * result.values().forEach(repository::save);
+ * </pre>
+ * Instances are immutable &amp; safe for concurrent use.
+ *
+ * @param <T> Type of documents.
+ */
+public final class NullDefenseBatch<T> {
+
+    /* Documents parsed by a single task, unless changed */
+    static final int DEFAULT_CHUNK_SIZE = 32;
+
+    /* Gson having NullDefenseTypeAdapterFactory registered */
+    private final Gson gson;
+    /* Type of documents */
+    private final TypeToken<T> type;
+    /* Runs tasks */
+    private final Executor executor;
+    /* Documents parsed by a single task */
+    private final int chunkSize;
+
+    private NullDefenseBatch(Gson gson, TypeToken<T> type, Executor executor, int chunkSize) {
+        this.gson = gson;
+        this.type = type;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param gson     Gson having {@link NullDefenseTypeAdapterFactory} registered
+     * @param type     type of documents
+     * @param executor executor running tasks
+     * @param <T>      Type of documents.
+     * @return batch parser, parsing {@value #DEFAULT_CHUNK_SIZE} documents per task
+     * @throws NullPointerException if any argument is null
+     */
+    public static <T> NullDefenseBatch<T> of(Gson gson, TypeToken<T> type, Executor executor) {
+        return of(gson, type, executor, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param gson      Gson having {@link NullDefenseTypeAdapterFactory} registered
+     * @param type      type of documents
+     * @param executor  executor running tasks
+     * @param chunkSize documents parsed by a single task, larger chunks suit smaller documents
+     * @param <T>       Type of documents.
+     * @return batch parser
+     * @throws NullPointerException     if any argument is null
+     * @throws IllegalArgumentException if chunk size is less than 1
+     */
+    public static <T> NullDefenseBatch<T> of(Gson gson, TypeToken<T> type, Executor executor, int chunkSize) {
+        if (gson == null || type == null || executor == null) {
+            throw new NullPointerException("Gson, type & executor cannot be null");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        return new NullDefenseBatch<>(gson, type, executor, chunkSize);
+    }
+
+    /**
+     * @param inputs JSON documents
+     * @return documents in input order
+     */
+    public Result<T> parseStrings(List<String> inputs) {
+        return parse(inputs, StringReader::new);
+    }
+
+    /**
+     * @param inputs JSON documents, encoded as UTF-8
+     * @return documents in input order
+     */
+    public Result<T> parseBytes(List<byte[]> inputs) {
+        return parse(inputs, bytes -> new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Readers are read once each &amp; are not closed.
+     *
+     * @param inputs readers, each holding a JSON document
+     * @return documents in input order
+     */
+    public Result<T> parseReaders(List<? extends Reader> inputs) {
+        return parse(inputs, Function.identity());
+    }
+
+    /**
+     * Parses all inputs &amp; waits for all tasks to complete.
+     *
+     * @param inputs  documents
+     * @param readers opens reader of a document
+     * @return documents in input order
+     */
+    private <I> Result<T> parse(List<I> inputs, Function<? super I, ? extends Reader> readers) {
+        int size = inputs.size();
+        Object[] values = new Object[size];
+        boolean[] read = new boolean[size];
+        JsonParseException[] failures = new JsonParseException[size];
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>((size + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < size; from += chunkSize) {
+            int start = from;
+            int end = Math.min(size, from + chunkSize);
+            tasks.add(CompletableFuture.runAsync(() -> {
+                for (int index = start; index < end; index++) {
+                    try {
+                        read[index] = read(readers.apply(inputs.get(index)), values, index);
+                    } catch (JsonParseException e) {
+                        failures[index] = e;
+                    }
+                }
+            }, executor));
+        }
+
+        try {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+        return new Result<>(values, read, failures);
+    }
+
+    /**
+     * Reads a document as {@code fromJson} does, telling apart documents which hold no value to discard.
+     *
+     * @param input  reader of document
+     * @param values documents in input order, receiving read document
+     * @param index  index of document
+     * @return {@code true} if a value other than {@code null} was read, {@code false} if document is empty
+     * or is {@code null}
+     * @throws JsonParseException if document is malformed or cannot be read
+     */
+    private boolean read(Reader input, Object[] values, int index) {
+        JsonReader reader = gson.newJsonReader(input);
+        JsonToken first;
+        Strictness strictness = reader.getStrictness();
+        try {
+            if (strictness == Strictness.LEGACY_STRICT) {
+                // Same as fromJson, which reads leniently unless Gson is configured otherwise
+                reader.setStrictness(Strictness.LENIENT);
+            }
+            first = reader.peek();
+        } catch (EOFException e) {
+            // Read as null by Gson, nothing to discard
+            return false;
+        } catch (IOException e) {
+            throw NullDefenseVerifier.toJsonException(e);
+        } finally {
+            reader.setStrictness(strictness);
+        }
+
+        values[index] = gson.fromJson(reader, type);
+        try {
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("JSON document was not fully consumed.");
+            }
+        } catch (IOException e) {
+            throw NullDefenseVerifier.toJsonException(e);
+        }
+        return first != JsonToken.NULL;
+    }
+
+    /**
+     * Documents of a batch, in input order.
+     *
+     * @param <T> Type of documents.
+     */
+    public static final class Result<T> {
+        /* Documents in input order, null when empty, discarded or failed */
+        private final List<T> values;
+        /* Indexes of documents read as non-null & discarded by validation */
+        private final List<Integer> discarded;
+        /* Failures of malformed documents, by index */
+        private final Map<Integer, JsonParseException> failures;
+
+        @SuppressWarnings("unchecked")
+        Result(Object[] values, boolean[] read, JsonParseException[] failures) {
+            List<Integer> discarded = new ArrayList<>();
+            Map<Integer, JsonParseException> failed = new LinkedHashMap<>();
+            for (int index = 0; index < values.length; index++) {
+                if (failures[index] != null) {
+                    failed.put(index, failures[index]);
+                } else if (read[index] && values[index] == null) {
+                    discarded.add(index);
+                }
+            }
+            this.values = Collections.unmodifiableList(Arrays.asList((T[]) values));
+            this.discarded = Collections.unmodifiableList(discarded);
+            this.failures = Collections.unmodifiableMap(failed);
+        }
+
+        /**
+         * @return documents in input order, {@code null} for those empty, holding {@code null}, discarded or failed
+         */
+        public List<T> values() {
+            return values;
+        }
+
+        /**
+         * @return indexes of documents which were discarded, in input order. Empty documents &amp; those
+         * holding {@code null} only are not
+         */
+        public List<Integer> discarded() {
+            return discarded;
+        }
+
+        /**
+         * @return failures of documents which could not be parsed, by index
+         */
+        public Map<Integer, JsonParseException> failures() {
+            return failures;
+        }
+    }
+}
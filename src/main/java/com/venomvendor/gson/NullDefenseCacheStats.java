@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+/**
+ * Snapshot of statistics of mandatory fields cached per class, by a {@link NullDefenseTypeAdapterFactory}.
+ * <p>
+ * Counters are read one after the other while parsing may continue, hence are not an atomic view.
+ * Lookups are counted only while diagnostics are enabled, to keep them free of shared writes, hence hits are
+ * unknown otherwise.
+ *
+ * @see NullDefenseTypeAdapterFactory.Builder#diagnostics(double)
+ */
+public final class NullDefenseCacheStats {
+
+    /* Lookups served from cache, -1 when lookups are not counted */
+    private final long hits;
+    /* Lookups which resolved a class */
+    private final long misses;
+    /* Classes removed, either to stay within maximum or after being unloaded */
+    private final long evictions;
+    /* Classes currently cached */
+    private final int size;
+
+    NullDefenseCacheStats(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    /**
+     * @return number of lookups served from cache, {@code -1} when lookups are not counted, i.e. diagnostics
+     * are not enabled
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return number of lookups which resolved mandatory fields of a class
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * @return number of classes removed, to stay within maximum or after being unloaded
+     */
+    public long evictions() {
+        return evictions;
+    }
+
+    /**
+     * @return number of classes currently cached
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return share of lookups served from cache, {@code 1.0} when there was none, {@link Double#NaN} when
+     * lookups are not counted
+     */
+    public double hitRate() {
+        if (hits < 0) {
+            return Double.NaN;
+        }
+        long lookups = hits + misses;
+        return lookups == 0 ? 1.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "NullDefenseCacheStats{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", size=" + size + '}';
+    }
+}
@@ -0,0 +1,585 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.internal.Primitives;
+import com.venomvendor.gson.ValidationPlan.MandatoryField;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates objects which are already built, by the rules of {@link NullDefenseTypeAdapterFactory}.
+ * <p>
+ * Objects reached through custom deserializers or {@code @JsonAdapter} are never seen by the factory, while
+ * this walks the whole graph held by an object, irrespective of how it was built. Graph is walked with an
+ * explicit stack, nested objects first, as Gson would read them:
+ * <ul>
+ * <li>An invalid object held by a mandatory field rejects its holder, by any other field it is replaced
+ * by {@code null}, unless the field is final.</li>
+ * <li>Invalid elements of collections &amp; arrays are replaced by {@code null}, entries of maps holding one
+ * are removed. Mandatory fields are then compacted, as while reading. Containers which cannot be
+ * modified are replaced by compacted copies where their field allows, else are left as is.</li>
+ * <li>Objects are visited once, by identity. An object referring back to one being validated, regards it
+ * as valid.</li>
+ * <li>Only objects whose class has mandatory fields, rules or containers to compact, or whose fields may
+ * hold such objects by their declared types, are walked into. Fields of other classes, {@code java.*}
+ * included, are never read nor made accessible.</li>
+ * </ul>
+ * <pre>
+ * NullDefenseGraphValidator validator = NullDefenseGraphValidator.of(factory);
+ * Parent parent = validator.sanitize(cache.get(key));
+ * </pre>
+ * State of a walk is kept per thread &amp; reused, objects without nested objects are checked without any walk.
+ * Instances are immutable &amp; safe for concurrent use.
+ */
+public final class NullDefenseGraphValidator {
+
+    /* Nesting of objects & containers allowed, unless changed */
+    static final int DEFAULT_MAX_DEPTH = 255;
+    /* Objects a walk may have visited & still be reused, larger maps are dropped */
+    private static final int RETAINED_VISITS = 1024;
+
+    /* State of objects, visited during a walk */
+    private static final Boolean VALID = Boolean.TRUE;
+    private static final Boolean INVALID = Boolean.FALSE;
+
+    /* Options of factory */
+    private final DefenseConfig config;
+    /* Checks objects against their plans */
+    private final PlanChecker checker;
+    /* Maximum nesting of objects & containers, root included */
+    private final int maxDepth;
+    /* Fields holding nested objects, per class */
+    private final ClassValue<Shape> shapes = new ClassValue<Shape>() {
+        @Override
+        protected Shape computeValue(Class<?> clz) {
+            return Shape.of(clz, config.plans.get(clz));
+        }
+    };
+    /* When true, objects of class may hold objects to validate, per class */
+    private final ClassValue<Boolean> reaching = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> clz) {
+            return reaches(clz, new HashSet<>());
+        }
+    };
+    /* Walk of current thread, reused across calls */
+    private final ThreadLocal<Walk> walks = ThreadLocal.withInitial(Walk::new);
+
+    NullDefenseGraphValidator(DefenseConfig config, int maxDepth) {
+        this.config = config;
+        this.checker = new PlanChecker(config);
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @param factory factory whose rules are applied
+     * @return validator allowing as many nested objects &amp; containers as factory does
+     * @throws NullPointerException if factory is null
+     * @see NullDefenseTypeAdapterFactory.Builder#maxDepth(int)
+     */
+    public static NullDefenseGraphValidator of(NullDefenseTypeAdapterFactory factory) {
+        if (factory == null) {
+            throw new NullPointerException("Factory cannot be null");
+        }
+        return of(factory, factory.config().maxDepth);
+    }
+
+    /**
+     * @param factory  factory whose rules are applied
+     * @param maxDepth maximum nesting of objects &amp; containers, root included
+     * @return validator for given factory
+     * @throws NullPointerException     if factory is null
+     * @throws IllegalArgumentException if max depth is less than 1
+     */
+    public static NullDefenseGraphValidator of(NullDefenseTypeAdapterFactory factory, int maxDepth) {
+        if (factory == null) {
+            throw new NullPointerException("Factory cannot be null");
+        }
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+        }
+        return new NullDefenseGraphValidator(factory.config(), maxDepth);
+    }
+
+    /**
+     * Validates an object along with all objects held by it, removing invalid ones in place. Graph is modified
+     * as it is walked, hence remains partially modified when object is invalid or an exception is thrown.
+     *
+     * @param root object to validate
+     * @param <T>  Type of object.
+     * @return same object if valid, else {@code null}
+     * @throws IllegalStateException if graph is nested deeper than maximum depth
+     */
+    public <T> T sanitize(T root) {
+        return root == null || walk(root, true) ? root : null;
+    }
+
+    /**
+     * Checks an object along with all objects held by it, without modifying any. Rules see containers as they
+     * are held, including invalid elements.
+     *
+     * @param root object to check
+     * @return {@code true} if {@link #sanitize(Object)} would retain the object
+     * @throws IllegalStateException if graph is nested deeper than maximum depth
+     */
+    public boolean isValid(Object root) {
+        return root != null && walk(root, false);
+    }
+
+    /**
+     * @param root   non-null object to validate
+     * @param mutate when true, invalid objects are removed
+     * @return {@code true} if object is valid
+     */
+    private boolean walk(Object root, boolean mutate) {
+        if (!isTraversed(root)) {
+            return true;
+        }
+        if (!isContainer(root) && shapes.get(root.getClass()) == Shape.EMPTY) {
+            // Nothing nested, checked right away
+            return check(root, mutate, null);
+        }
+
+        Walk walk = walks.get();
+        if (walk.active) {
+            // Called while walking, e.g. by a listener
+            walk = new Walk();
+        }
+        try {
+            return walk.run(root, mutate);
+        } finally {
+            walk.reset();
+        }
+    }
+
+    /**
+     * Checks object against its plan, once its nested objects are validated.
+     *
+     * @param value  object to check
+     * @param mutate when true, containers are compacted &amp; discards are reported
+     * @param walk   walk knowing nested objects which are invalid, {@code null} if object holds none
+     * @return {@code true} if object is valid
+     */
+    private boolean check(Object value, boolean mutate, Walk walk) {
+        ValidationPlan plan = config.plans.get(value.getClass());
+        if (plan.isEmpty()) {
+            return true;
+        }
+        if (!mutate) {
+            return checker.isValid(value, walk == null ? nested -> false : walk::isRejected);
+        }
+
+        if (config.instrumented) {
+            config.listener.onRead(value.getClass());
+        }
+        MandatoryField rejectedBy = checker.reject(value, plan);
+        if (rejectedBy != null && config.instrumented) {
+            config.listener.onDiscard(value.getClass(), rejectedBy.name);
+        }
+        return rejectedBy == null;
+    }
+
+    /**
+     * @param value non-null value
+     * @return {@code true} if value holds elements
+     */
+    private static boolean isContainer(Object value) {
+        return value instanceof Collection || value instanceof Map || value instanceof Object[];
+    }
+
+    /**
+     * @param value non-null value held by a field or container
+     * @return {@code true} if value may hold fields to validate
+     */
+    private boolean isTraversed(Object value) {
+        if (isContainer(value)) {
+            return true;
+        }
+        Class<?> clz = value.getClass();
+        return isUserClass(clz) && !(value instanceof Enum) && reaching.get(clz);
+    }
+
+    /**
+     * Follows declared types of fields, as Gson binds them. Types which may hold anything, such as
+     * {@link Object}, interfaces &amp; type variables, are regarded as reaching.
+     *
+     * @param type     declared type of a field, or a class
+     * @param visiting classes being inspected, regarded as not reaching when referred back to
+     * @return {@code true} if values of type may hold objects having a plan
+     */
+    private boolean reaches(Type type, Set<Class<?>> visiting) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw) && arguments.length == 1) {
+                return reaches(arguments[0], visiting);
+            }
+            if (Map.class.isAssignableFrom(raw) && arguments.length == 2) {
+                return reaches(arguments[1], visiting);
+            }
+            return reaches(raw, visiting);
+        }
+        if (type instanceof GenericArrayType) {
+            return reaches(((GenericArrayType) type).getGenericComponentType(), visiting);
+        }
+        if (!(type instanceof Class)) {
+            // Type variables & wildcards
+            return true;
+        }
+
+        Class<?> clz = (Class<?>) type;
+        if (clz.isArray()) {
+            return reaches(clz.getComponentType(), visiting);
+        }
+        if (Shape.isLeaf(clz)) {
+            return false;
+        }
+        if (clz.isInterface() || Modifier.isAbstract(clz.getModifiers()) || clz == Object.class) {
+            // Containers without element type included
+            return true;
+        }
+        if (!isUserClass(clz)) {
+            return false;
+        }
+        if (!config.plans.get(clz).isEmpty()) {
+            return true;
+        }
+        if (!visiting.add(clz)) {
+            return false;
+        }
+        for (Field field : Shape.nestedFields(clz)) {
+            if (reaches(field.getGenericType(), visiting)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * JDK classes are neither validated nor opened for reflection, including those of platform class loader.
+     *
+     * @param clz class in hierarchy, {@code null} past {@link Object}
+     * @return {@code true} if fields of class may be read
+     */
+    static boolean isUserClass(Class<?> clz) {
+        return clz != null && clz.getClassLoader() != null && !clz.getName().startsWith("java.");
+    }
+
+    /**
+     * Fields of a class, which may hold nested objects.
+     */
+    private static final class Shape {
+        /* Shape of classes holding nothing to walk */
+        private static final Shape EMPTY = new Shape(new FieldAccessor[0], new String[0], new boolean[0]);
+
+        /* Readers of fields */
+        final FieldAccessor[] accessors;
+        /* Names of fields */
+        final String[] names;
+        /* When true, field is mandatory & an invalid value rejects its holder */
+        final boolean[] mandatory;
+
+        private Shape(FieldAccessor[] accessors, String[] names, boolean[] mandatory) {
+            this.accessors = accessors;
+            this.names = names;
+            this.mandatory = mandatory;
+        }
+
+        /**
+         * @param clz  class to inspect
+         * @param plan plan of class
+         * @return fields bound by Gson, whose declared type may hold nested objects
+         */
+        static Shape of(Class<?> clz, ValidationPlan plan) {
+            Set<String> mandatoryNames = new HashSet<>();
+            for (MandatoryField field : plan.fields()) {
+                mandatoryNames.add(field.name);
+            }
+
+            List<Field> fields = nestedFields(clz);
+            if (fields.isEmpty()) {
+                return EMPTY;
+            }
+
+            int size = fields.size();
+            FieldAccessor[] accessors = new FieldAccessor[size];
+            String[] names = new String[size];
+            boolean[] mandatory = new boolean[size];
+            for (int index = 0; index < size; index++) {
+                Field field = fields.get(index);
+                accessors[index] = FieldAccessor.of(field, true);
+                names[index] = field.getName();
+                mandatory[index] = mandatoryNames.contains(field.getName());
+            }
+            return new Shape(accessors, names, mandatory);
+        }
+
+        /**
+         * @param clz class to inspect
+         * @return fields bound by Gson, whose declared type may hold nested objects, not made accessible
+         */
+        static List<Field> nestedFields(Class<?> clz) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = clz; isUserClass(current); current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+                            && !isLeaf(field.getType())) {
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        }
+
+        /**
+         * @param type declared type of field
+         * @return {@code true} if values of type never hold fields to validate
+         */
+        private static boolean isLeaf(Class<?> type) {
+            return type.isPrimitive()
+                    || Primitives.isWrapperType(type)
+                    || type == String.class
+                    || type.isEnum()
+                    || (type.isArray() && type.getComponentType().isPrimitive());
+        }
+    }
+
+    /**
+     * Object being walked, along with values held by it.
+     */
+    private static final class Frame {
+        /* Object or container */
+        Object value;
+        /* Shape of object, null for containers */
+        Shape shape;
+        /* Values of fields or elements, in order */
+        Object[] children;
+        /* Index of next child to visit */
+        int next;
+    }
+
+    /**
+     * State of a single walk.
+     */
+    private final class Walk {
+        /* Objects visited, VALID or INVALID once validated, null while being validated */
+        private Map<Object, Boolean> visited = new IdentityHashMap<>();
+        /* Objects being validated, innermost last */
+        private Frame[] stack = new Frame[16];
+        private int top;
+        /* When true, invalid objects are removed */
+        private boolean mutate;
+        /* When true, walk is in use by current thread */
+        boolean active;
+
+        /**
+         * @param root   object to validate, which holds nested objects
+         * @param mutate when true, invalid objects are removed
+         * @return {@code true} if object is valid
+         */
+        boolean run(Object root, boolean mutate) {
+            this.active = true;
+            this.mutate = mutate;
+            push(root);
+            while (top > 0) {
+                Frame frame = stack[top - 1];
+                if (frame.next < frame.children.length) {
+                    Object child = frame.children[frame.next++];
+                    if (child != null && !visited.containsKey(child) && isTraversed(child)) {
+                        if (top == maxDepth) {
+                            throw new IllegalStateException("Max depth exceeded: " + maxDepth);
+                        }
+                        push(child);
+                    }
+                    continue;
+                }
+
+                top--;
+                boolean valid = frame.shape == null ? finishContainer(frame) : finishObject(frame);
+                visited.put(frame.value, valid ? VALID : INVALID);
+                frame.value = null;
+                frame.children = null;
+            }
+            return visited.get(root) != INVALID;
+        }
+
+        /**
+         * @param value nested object
+         * @return {@code true} if object was validated &amp; is invalid
+         */
+        boolean isRejected(Object value) {
+            return visited.get(value) == INVALID;
+        }
+
+        /**
+         * Drops all references held, for the walk to be reused.
+         */
+        void reset() {
+            for (int index = 0; index < top; index++) {
+                stack[index].value = null;
+                stack[index].children = null;
+            }
+            top = 0;
+            if (visited.size() > RETAINED_VISITS) {
+                visited = new IdentityHashMap<>();
+            } else {
+                visited.clear();
+            }
+            active = false;
+        }
+
+        /**
+         * @param value object or container, not yet visited
+         */
+        private void push(Object value) {
+            Object[] children;
+            Shape shape = null;
+            if (value instanceof Collection) {
+                children = ((Collection<?>) value).toArray();
+            } else if (value instanceof Map) {
+                children = ((Map<?, ?>) value).values().toArray();
+            } else if (value instanceof Object[]) {
+                children = (Object[]) value;
+            } else {
+                shape = shapes.get(value.getClass());
+                if (shape == Shape.EMPTY) {
+                    // Nothing nested, checked right away
+                    visited.put(value, check(value, mutate, null) ? VALID : INVALID);
+                    return;
+                }
+                children = new Object[shape.accessors.length];
+                for (int index = 0; index < children.length; index++) {
+                    children[index] = shape.accessors[index].get(value);
+                }
+            }
+
+            visited.put(value, null);
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            Frame frame = stack[top];
+            if (frame == null) {
+                frame = new Frame();
+                stack[top] = frame;
+            }
+            frame.value = value;
+            frame.shape = shape;
+            frame.children = children;
+            frame.next = 0;
+            top++;
+        }
+
+        /**
+         * Replaces invalid nested objects, then checks object against its plan.
+         */
+        private boolean finishObject(Frame frame) {
+            Object value = frame.value;
+            Shape shape = frame.shape;
+            for (int index = 0; index < frame.children.length; index++) {
+                Object child = frame.children[index];
+                if (child == null || visited.get(child) != INVALID) {
+                    continue;
+                }
+                if (shape.mandatory[index]) {
+                    if (mutate && config.instrumented) {
+                        config.listener.onRead(value.getClass());
+                        config.listener.onDiscard(value.getClass(), shape.names[index]);
+                    }
+                    return false;
+                }
+                FieldAccessor accessor = shape.accessors[index];
+                if (mutate && accessor.isWritable()) {
+                    accessor.set(value, null);
+                }
+            }
+            return check(value, mutate, this);
+        }
+
+        /**
+         * Replaces invalid elements by {@code null}, containers themselves are never invalid.
+         */
+        private boolean finishContainer(Frame frame) {
+            if (!mutate) {
+                return true;
+            }
+            Object container = frame.value;
+            boolean hasInvalid = false;
+            for (Object child : frame.children) {
+                if (child != null && visited.get(child) == INVALID) {
+                    hasInvalid = true;
+                    break;
+                }
+            }
+            if (!hasInvalid) {
+                return true;
+            }
+
+            try {
+                if (container instanceof Object[]) {
+                    Object[] array = (Object[]) container;
+                    for (int index = 0; index < array.length; index++) {
+                        if (array[index] != null && visited.get(array[index]) == INVALID) {
+                            array[index] = null;
+                        }
+                    }
+                } else if (container instanceof List) {
+                    for (ListIterator<Object> iterator = castList(container).listIterator(); iterator.hasNext(); ) {
+                        Object element = iterator.next();
+                        if (element != null && visited.get(element) == INVALID) {
+                            iterator.set(null);
+                        }
+                    }
+                } else if (container instanceof Map) {
+                    ((Map<?, ?>) container).values().removeIf(element -> element != null
+                            && visited.get(element) == INVALID);
+                } else {
+                    for (Iterator<?> iterator = ((Collection<?>) container).iterator(); iterator.hasNext(); ) {
+                        Object element = iterator.next();
+                        if (element != null && visited.get(element) == INVALID) {
+                            iterator.remove();
+                        }
+                    }
+                }
+            } catch (UnsupportedOperationException e) {
+                // Container cannot be modified, left as is
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Object> castList(Object list) {
+            return (List<Object>) list;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a top level JSON array one element at a time, yielding only valid elements.
+ * <p>
+ * Elements are read by adapter of given Gson, which must have {@link NullDefenseTypeAdapterFactory}
+ * registered, hence elements are validated exactly as they would be inside a Collection.
+ * Only the current element is held in memory, irrespective of size of the array.
+ * <pre>
+ * try (Stream&lt;Child&gt; children = NullDefenseIterator.of(gson, reader, TypeToken.get(Child.class)).stream()) {
+ *     children.forEach(repository::save);
+ * }
+ * </pre>
+ *
+ * @param <T> Type of elements.
+ */
+public final class NullDefenseIterator<T> implements Iterator<T>, Closeable {
+
+    /* Source of array */
+    private final JsonReader reader;
+    /* Adapter reading each element */
+    private final TypeAdapter<T> adapter;
+    /* Next valid element, already read */
+    private T next;
+    /* When true, array is fully read */
+    private boolean done;
+
+    private NullDefenseIterator(JsonReader reader, TypeAdapter<T> adapter) {
+        this.reader = reader;
+        this.adapter = adapter;
+    }
+
+    /**
+     * @param gson   Gson having {@link NullDefenseTypeAdapterFactory} registered
+     * @param reader reader positioned at a JSON array or {@code null}
+     * @param type   type of elements
+     * @param <T>    Type of elements.
+     * @return iterator over valid elements
+     * @throws JsonIOException     if there was a problem reading from reader
+     * @throws JsonSyntaxException if reader is not positioned at an array
+     */
+    public static <T> NullDefenseIterator<T> of(Gson gson, JsonReader reader, TypeToken<T> type) {
+        NullDefenseIterator<T> iterator = new NullDefenseIterator<>(reader, gson.getAdapter(type));
+        iterator.begin();
+        return iterator;
+    }
+
+    /**
+     * Same as {@link #of(Gson, JsonReader, TypeToken)}, with reader configured by Gson.
+     *
+     * @param gson   Gson having {@link NullDefenseTypeAdapterFactory} registered
+     * @param reader reader holding a JSON array or {@code null}
+     * @param type   type of elements
+     * @param <T>    Type of elements.
+     * @return iterator over valid elements
+     */
+    public static <T> NullDefenseIterator<T> of(Gson gson, Reader reader, TypeToken<T> type) {
+        return of(gson, gson.newJsonReader(reader), type);
+    }
+
+    /**
+     * @return sequential, ordered stream of valid elements, closing it closes the reader
+     */
+    public Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new JsonIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Consumes start of array, a {@code null} array has no elements.
+     */
+    private void begin() {
+        try {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                done = true;
+            } else {
+                reader.beginArray();
+            }
+        } catch (IOException | IllegalStateException e) {
+            throw NullDefenseVerifier.toJsonException(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (done) {
+            return false;
+        }
+
+        try {
+            while (reader.hasNext()) {
+                T element = adapter.read(reader);
+                if (element != null) {
+                    next = element;
+                    return true;
+                }
+            }
+            reader.endArray();
+            done = true;
+            return false;
+        } catch (IOException | IllegalStateException e) {
+            throw NullDefenseVerifier.toJsonException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T element = next;
+        next = null;
+        return element;
+    }
+
+    @Override
+    public void close() throws IOException {
+        done = true;
+        next = null;
+        reader.close();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+/**
+ * Receives events of {@link NullDefenseTypeAdapterFactory}, for metrics or logging.
+ * <p>
+ * Events are delivered on the parsing thread, concurrently when Gson is shared across threads,
+ * hence implementations must be thread safe &amp; cheap. All methods are no-op by default.
+ * See {@link NullDefenseMetrics} for counters per type.
+ */
+public interface NullDefenseListener {
+
+    /**
+     * Listener ignoring all events, used unless another is registered.
+     */
+    NullDefenseListener NONE = new NullDefenseListener() {
+    };
+
+    /**
+     * An object was read &amp; is about to be validated, or was rejected while reading.
+     *
+     * @param type class of object
+     */
+    default void onRead(Class<?> type) {
+    }
+
+    /**
+     * An object was discarded.
+     *
+     * @param type  class of object
+     * @param field name of mandatory field, which was {@code null} or empty, or of field failing its rule.
+     *              Always name of Java field, not its serialized name, irrespective of where it was rejected.
+     *              Never {@code null}, including discards while writing
+     */
+    default void onDiscard(Class<?> type, String field) {
+    }
+
+    /**
+     * Same discard as {@link #onDiscard(Class, String)}, along with where it was read. Received only when
+     * diagnostics are enabled &amp; the discard is sampled, never for objects discarded while writing.
+     *
+     * @param type  class of object
+     * @param field name of mandatory field, which was {@code null} or empty, name of Java field as above
+     * @param path  JSON path of discarded object, e.g. {@code $.children[3].language}
+     * @see NullDefenseTypeAdapterFactory.Builder#diagnostics(double)
+     */
+    default void onDiscard(Class<?> type, String field, String path) {
+    }
+
+    /**
+     * {@code null} elements were removed from a collection held by an object.
+     *
+     * @param type  class of object holding collection
+     * @param field name of field holding collection
+     * @param count number of elements removed
+     */
+    default void onNullsRemoved(Class<?> type, String field, int count) {
+    }
+
+    /**
+     * An object was validated.
+     *
+     * @param type  class of object
+     * @param nanos time taken for validation, in nanoseconds
+     */
+    default void onValidated(Class<?> type, long nanos) {
+    }
+}
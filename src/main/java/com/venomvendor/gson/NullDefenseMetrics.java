@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters per type, backed by {@link LongAdder} so that parsing threads never contend.
+ * <pre>
+ * NullDefenseMetrics metrics = new NullDefenseMetrics();
+ * TypeAdapterFactory typeAdapter = new NullDefenseTypeAdapterFactory(Mandatory.class)
+ *         .listener(metrics);
+ * ...
+ * long discarded = metrics.of(Child.class).discards();
+ * </pre>
+ * Types are held strongly once seen, along with their class loaders, for as long as this instance is
+ * reachable. Where classes are unloaded, e.g. on redeploy, metrics are to be replaced along with the factory.
+ */
+public final class NullDefenseMetrics implements NullDefenseListener {
+
+    /* Counters of types never seen, never incremented */
+    private static final TypeMetrics NONE = new TypeMetrics();
+
+    /* Counters of every type seen so far */
+    private final ConcurrentMap<Class<?>, TypeMetrics> types = new ConcurrentHashMap<>();
+
+    /**
+     * Looking up a type never holds on to it.
+     *
+     * @param type class of objects
+     * @return live counters of given type, a shared instance of all zero when type was never seen
+     */
+    public TypeMetrics of(Class<?> type) {
+        return types.getOrDefault(type, NONE);
+    }
+
+    /**
+     * @param type class of objects, seen by listener
+     * @return counters of given type, created on first event
+     */
+    private TypeMetrics counters(Class<?> type) {
+        TypeMetrics metrics = types.get(type);
+        if (metrics == null) {
+            metrics = types.computeIfAbsent(type, key -> new TypeMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * @return live, unmodifiable view of counters per type
+     */
+    public Map<Class<?>, TypeMetrics> all() {
+        return Collections.unmodifiableMap(types);
+    }
+
+    @Override
+    public void onRead(Class<?> type) {
+        counters(type).reads.increment();
+    }
+
+    @Override
+    public void onDiscard(Class<?> type, String field) {
+        TypeMetrics metrics = counters(type);
+        metrics.discards.increment();
+        if (field == null) {
+            // Counted by type only, when reported by another source
+            return;
+        }
+        LongAdder byField = metrics.discardsByField.get(field);
+        if (byField == null) {
+            byField = metrics.discardsByField.computeIfAbsent(field, key -> new LongAdder());
+        }
+        byField.increment();
+    }
+
+    @Override
+    public void onNullsRemoved(Class<?> type, String field, int count) {
+        counters(type).nullsRemoved.add(count);
+    }
+
+    @Override
+    public void onValidated(Class<?> type, long nanos) {
+        counters(type).validationNanos.add(nanos);
+    }
+
+    /**
+     * Counters of a single type.
+     */
+    public static final class TypeMetrics {
+        /* Objects read */
+        private final LongAdder reads = new LongAdder();
+        /* Objects discarded */
+        private final LongAdder discards = new LongAdder();
+        /* Objects discarded, per mandatory field */
+        private final ConcurrentMap<String, LongAdder> discardsByField = new ConcurrentHashMap<>();
+        /* Elements removed from collections */
+        private final LongAdder nullsRemoved = new LongAdder();
+        /* Time taken for validation */
+        private final LongAdder validationNanos = new LongAdder();
+
+        private TypeMetrics() {
+        }
+
+        /**
+         * @return number of objects read
+         */
+        public long reads() {
+            return reads.sum();
+        }
+
+        /**
+         * @return number of objects discarded
+         */
+        public long discards() {
+            return discards.sum();
+        }
+
+        /**
+         * @return snapshot of number of objects discarded, per name of mandatory Java field
+         */
+        public Map<String, Long> discardsByField() {
+            Map<String, Long> snapshot = new HashMap<>();
+            discardsByField.forEach((field, count) -> snapshot.put(field, count.sum()));
+            return snapshot;
+        }
+
+        /**
+         * @return number of {@code null} elements removed from collections
+         */
+        public long nullsRemoved() {
+            return nullsRemoved.sum();
+        }
+
+        /**
+         * @return cumulative time taken for validation, in nanoseconds
+         */
+        public long validationNanos() {
+            return validationNanos.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "TypeMetrics{reads=" + reads() + ", discards=" + discards()
+                    + ", discardsByField=" + discardsByField() + ", nullsRemoved=" + nullsRemoved()
+                    + ", validationNanos=" + validationNanos() + '}';
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import java.lang.annotation.Annotation;
+import java.util.function.Predicate;
+
+/**
+ * Rule checked on fields marked with an annotation, in addition to mandatory fields being non-null.
+ * <p>
+ * A rule is compiled once per field, when mandatory fields of its class are resolved. The compiled check is
+ * kept in the cached plan of the class &amp; runs in the same pass as null checks, hence no reflection is
+ * involved per object. Checks receive only non-null values, {@code null} is rejected only when the field
+ * is mandatory. Objects failing a check are discarded, just like those having a {@code null} mandatory field.
+ * See {@link NullDefenseRules} for common rules.
+ * <pre>
+ * NullDefenseTypeAdapterFactory.builder(Mandatory.class)
+ *         .rule(NotBlank.class, NullDefenseRules.notBlank())
+ *         .rule(Range.class, NullDefenseRules.range(Range::min, Range::max))
+ *         .build();
+ * </pre>
+ * Rules are checked once objects are bound, hence {@link NullDefenseVerifier} &amp;
+ * {@link NullDefenseTransformer} refuse types having fields checked by rules.
+ *
+ * @param <A> Type of annotation, marking fields checked by this rule.
+ */
+@FunctionalInterface
+public interface NullDefenseRule<A extends Annotation> {
+
+    /**
+     * @param annotation annotation present on field, for attributes of the rule
+     * @param type       declared type of field, primitives included
+     * @return check of non-null values of the field, {@code true} if value is valid. Must be thread safe
+     * @throws IllegalArgumentException if rule does not apply to declared type
+     */
+    Predicate<Object> compile(A annotation, Class<?> type);
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.internal.Primitives;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Common {@link NullDefenseRule}s. Attributes such as bounds are read from the annotation once, while
+ * compiling, &amp; checks are chosen by declared type of field, hence values are rarely inspected further.
+ * <pre>
+ * &#064;Retention(RetentionPolicy.RUNTIME)
+ * &#064;Target({ElementType.FIELD})
+ * public @interface MinSize {
+ *     int value();
+ * }
+ *
+ * builder.rule(MinSize.class, NullDefenseRules.minSize(MinSize::value));
+ * </pre>
+ */
+public final class NullDefenseRules {
+
+    private NullDefenseRules() {
+        throw new AssertionError("No instances");
+    }
+
+    /**
+     * Applies to {@link CharSequence} fields, value must have at least one character which is not whitespace.
+     *
+     * @param <A> Type of annotation.
+     * @return rule rejecting blank text
+     */
+    public static <A extends Annotation> NullDefenseRule<A> notBlank() {
+        return (annotation, type) -> {
+            if (CharSequence.class.isAssignableFrom(type)) {
+                return value -> !isBlank((CharSequence) value);
+            }
+            if (type == Object.class) {
+                return value -> value instanceof CharSequence && !isBlank((CharSequence) value);
+            }
+            throw new IllegalArgumentException("Blank check does not apply to " + type.getName());
+        };
+    }
+
+    /**
+     * Applies to collections, maps, arrays &amp; {@link CharSequence} fields. Sizes are counted without
+     * {@code null} elements &amp; entries, hence are the same whether or not the value is compacted, be it
+     * read, validated or written.
+     *
+     * @param min reads minimum size from annotation
+     * @param <A> Type of annotation.
+     * @return rule rejecting values having fewer elements or characters
+     * @throws NullPointerException if min is null
+     */
+    public static <A extends Annotation> NullDefenseRule<A> minSize(ToIntFunction<? super A> min) {
+        if (min == null) {
+            throw new NullPointerException("Minimum cannot be null");
+        }
+        return (annotation, type) -> {
+            int size = min.applyAsInt(annotation);
+            if (size < 0) {
+                throw new IllegalArgumentException("Minimum size must not be negative: " + size);
+            }
+            if (Collection.class.isAssignableFrom(type)) {
+                return value -> NullCompaction.countNonNull((Collection<?>) value) >= size;
+            }
+            if (Map.class.isAssignableFrom(type)) {
+                return value -> NullCompaction.countNonNull((Map<?, ?>) value) >= size;
+            }
+            if (CharSequence.class.isAssignableFrom(type)) {
+                return value -> ((CharSequence) value).length() >= size;
+            }
+            if (type.isArray() || type == Object.class) {
+                return value -> sizeOf(value) >= size;
+            }
+            throw new IllegalArgumentException("Size check does not apply to " + type.getName());
+        };
+    }
+
+    /**
+     * Applies to numeric fields, primitives included, value must be within given bounds, both inclusive.
+     * {@code NaN} is never within bounds.
+     *
+     * @param min reads lower bound from annotation
+     * @param max reads upper bound from annotation
+     * @param <A> Type of annotation.
+     * @return rule rejecting values out of bounds
+     * @throws NullPointerException if any bound is null
+     */
+    public static <A extends Annotation> NullDefenseRule<A> range(ToLongFunction<? super A> min,
+                                                                  ToLongFunction<? super A> max) {
+        if (min == null || max == null) {
+            throw new NullPointerException("Bounds cannot be null");
+        }
+        return (annotation, type) -> {
+            long from = min.applyAsLong(annotation);
+            long to = max.applyAsLong(annotation);
+            if (from > to) {
+                throw new IllegalArgumentException("Minimum must not exceed maximum: " + from + " > " + to);
+            }
+            Class<?> wrapped = Primitives.wrap(type);
+            if (isIntegral(wrapped)) {
+                return value -> {
+                    long number = ((Number) value).longValue();
+                    return number >= from && number <= to;
+                };
+            }
+            if (wrapped == Double.class || wrapped == Float.class) {
+                return value -> {
+                    double number = ((Number) value).doubleValue();
+                    return number >= from && number <= to;
+                };
+            }
+            if (Number.class.isAssignableFrom(wrapped) || wrapped == Object.class) {
+                return value -> value instanceof Number && isWithin((Number) value, from, to);
+            }
+            throw new IllegalArgumentException("Range check does not apply to " + type.getName());
+        };
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        for (int index = 0, length = text.length(); index < length; index++) {
+            if (!Character.isWhitespace(text.charAt(index))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param value value of a field declared as array or Object
+     * @return number of non-null elements or characters, {@code -1} if value has no size
+     */
+    private static int sizeOf(Object value) {
+        if (value instanceof Collection) {
+            return NullCompaction.countNonNull((Collection<?>) value);
+        }
+        if (value instanceof Map) {
+            return NullCompaction.countNonNull((Map<?, ?>) value);
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            return array.length - NullCompaction.countNulls(array);
+        }
+        if (value.getClass().isArray()) {
+            return Array.getLength(value);
+        }
+        return -1;
+    }
+
+    /**
+     * @param type wrapped type
+     * @return {@code true} if values of type are exact as long
+     */
+    private static boolean isIntegral(Class<?> type) {
+        return type == Integer.class
+                || type == Long.class
+                || type == Short.class
+                || type == Byte.class
+                || type == AtomicInteger.class
+                || type == AtomicLong.class;
+    }
+
+    /**
+     * @param number value of a field declared as Number or Object, e.g. BigDecimal or lazily parsed number
+     * @return {@code true} if number is within bounds
+     */
+    private static boolean isWithin(Number number, long from, long to) {
+        Class<?> type = number.getClass();
+        if (isIntegral(type)) {
+            long value = number.longValue();
+            return value >= from && value <= to;
+        }
+        if (type == Double.class || type == Float.class) {
+            double value = number.doubleValue();
+            return value >= from && value <= to;
+        }
+        try {
+            BigDecimal value = new BigDecimal(number.toString());
+            return value.compareTo(BigDecimal.valueOf(from)) >= 0 && value.compareTo(BigDecimal.valueOf(to)) <= 0;
+        } catch (NumberFormatException e) {
+            // Not a finite number
+            return false;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Copies JSON from a reader to a writer, cleaned by the rules of {@link NullDefenseTypeAdapterFactory},
+ * without binding any object.
+ * <p>
+ * Invalid objects, {@code null} values &amp; {@code null} elements of arrays are omitted, objects whose mandatory
+ * collections end up empty are invalid. Values read by other adapters are copied verbatim, nested
+ * {@code null} included. An object which may be rejected is held as tokens only until all of its
+ * mandatory fields are read, then it is forwarded to the writer. Fields are bound as by Gson's reflective adapter,
+ * honouring its exclusions &amp; naming, names which are not bound to the declared type are copied as is. Types read
+ * by other adapters are copied as is, unless they hold something to validate, in which case they are rejected
+ * up front.
+ * <pre>
+ * NullDefenseTransformer transformer = NullDefenseTransformer.of(factory, gson, TypeToken.get(Parent.class));
+ * transformer.transform(request.getReader(), response.getWriter());
+ * </pre>
+ * Instances are immutable &amp; safe for concurrent use.
+ */
+public final class NullDefenseTransformer {
+
+    /* Returned by walk, for values which are omitted */
+    private static final int DROPPED = -1;
+
+    /* Gson, which reads & writes the JSON */
+    private final Gson gson;
+    /* Schema of declared type */
+    private final SchemaNode root;
+    /* When true, empty mandatory collections invalidate an object */
+    private final boolean discardEmpty;
+
+    private NullDefenseTransformer(Gson gson, SchemaNode root, boolean discardEmpty) {
+        this.gson = gson;
+        this.root = root;
+        this.discardEmpty = discardEmpty;
+    }
+
+    /**
+     * @param factory factory registered with Gson, whose rules are applied
+     * @param gson    Gson reading &amp; writing the JSON, for binding of fields
+     * @param type    declared type of JSON
+     * @return transformer for given type
+     * @throws IllegalArgumentException if a type having mandatory fields or rules is read by a custom adapter,
+     *                                  or any type reached has fields checked by {@link NullDefenseRule}s
+     */
+    public static NullDefenseTransformer of(NullDefenseTypeAdapterFactory factory, Gson gson, TypeToken<?> type) {
+        DefenseConfig config = factory.config();
+        SchemaNode root = SchemaNode.of(type.getType(), config.plans, gson, factory);
+        return new NullDefenseTransformer(gson, root, config.discardEmpty);
+    }
+
+    /**
+     * Copies a single JSON value, {@code null} is written when it is invalid.
+     *
+     * @param in  reader positioned at a JSON value
+     * @param out writer receiving cleaned JSON
+     * @return {@code true} if value is valid, i.e. {@code fromJson} would not return {@code null}
+     * @throws JsonIOException     if there was a problem reading or writing
+     * @throws JsonSyntaxException if JSON is malformed or cannot be bound to declared type
+     */
+    public boolean transform(JsonReader in, JsonWriter out) {
+        try {
+            boolean valid = new Walk(in, out, discardEmpty).value(root) != DROPPED;
+            if (!valid) {
+                out.nullValue();
+            }
+            return valid;
+        } catch (IOException | IllegalStateException e) {
+            throw NullDefenseVerifier.toJsonException(e);
+        }
+    }
+
+    /**
+     * Same as {@link #transform(JsonReader, JsonWriter)}, with reader &amp; writer configured by Gson.
+     *
+     * @param in  reader holding JSON
+     * @param out writer receiving cleaned JSON, flushed once done
+     * @return {@code true} if value is valid
+     */
+    public boolean transform(Reader in, Writer out) {
+        try {
+            JsonWriter writer = gson.newJsonWriter(out);
+            boolean valid = transform(gson.newJsonReader(in), writer);
+            writer.flush();
+            return valid;
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    /**
+     * State of a single copy, holds tokens of objects whose validity is not yet known.
+     */
+    private static final class Walk {
+        /* Kinds of held tokens */
+        private static final byte BEGIN_ARRAY = 0;
+        private static final byte END_ARRAY = 1;
+        private static final byte BEGIN_OBJECT = 2;
+        private static final byte END_OBJECT = 3;
+        private static final byte NAME = 4;
+        private static final byte STRING = 5;
+        private static final byte NUMBER = 6;
+        private static final byte TRUE = 7;
+        private static final byte FALSE = 8;
+        private static final byte NULL = 9;
+
+        /* Source of JSON */
+        private final JsonReader in;
+        /* Destination of cleaned JSON */
+        private final JsonWriter out;
+        /* When true, empty mandatory collections invalidate an object */
+        private final boolean discardEmpty;
+
+        /* Mandatory fields read so far, for every object being read, innermost last */
+        private boolean[] present = new boolean[32];
+        private int top;
+
+        /* Objects being held, tokens go to writer when there is none */
+        private int pending;
+        /* Held tokens */
+        private byte[] kinds = new byte[256];
+        private String[] values = new String[256];
+        private int size;
+
+        /* Name read, written along with first token of its value */
+        private String deferredName;
+
+        Walk(JsonReader in, JsonWriter out, boolean discardEmpty) {
+            this.in = in;
+            this.out = out;
+            this.discardEmpty = discardEmpty;
+        }
+
+        /**
+         * @param node schema of value
+         * @return {@link #DROPPED} if value is omitted, else number of retained elements of
+         * collections &amp; maps, {@code 1} for all other values
+         */
+        int value(SchemaNode node) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                deferredName = null;
+                return DROPPED;
+            }
+            switch (node.kind) {
+                case OBJECT:
+                    return object(node);
+                case ARRAY:
+                    return array(node.element);
+                case MAP:
+                    return map(node.element);
+                case EXCLUDED:
+                    in.skipValue();
+                    deferredName = null;
+                    return DROPPED;
+                default:
+                    return copy(token);
+            }
+        }
+
+        private int object(SchemaNode node) throws IOException {
+            int slots = node.slots();
+            int base = top;
+            if (base + slots > present.length) {
+                present = Arrays.copyOf(present, Math.max(present.length * 2, base + slots));
+            }
+            Arrays.fill(present, base, base + slots, false);
+            top = base + slots;
+
+            // Held until all mandatory fields are read
+            boolean held = slots > 0;
+            int mark = size;
+            if (held) {
+                pending++;
+            }
+            int missing = slots;
+            boolean rejected = false;
+
+            in.beginObject();
+            emit(BEGIN_OBJECT, null);
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (rejected) {
+                    in.skipValue();
+                    continue;
+                }
+
+                deferredName = name;
+                SchemaNode.Member member = node.member(name);
+                if (member == null) {
+                    // Not bound, copied as is
+                    copy(in.peek());
+                    continue;
+                }
+
+                int retained = value(member.node);
+                if (member.slot < 0 || !held) {
+                    // Once forwarded, an object is never rejected
+                    continue;
+                }
+                if (retained == DROPPED || (retained == 0 && member.container && discardEmpty)) {
+                    rejected = true;
+                } else if (!present[base + member.slot]) {
+                    present[base + member.slot] = true;
+                    if (--missing == 0 && held) {
+                        // Validity is known, rest of the object is forwarded
+                        held = false;
+                        release();
+                    }
+                }
+            }
+            in.endObject();
+            top = base;
+
+            if (held) {
+                size = mark;
+                pending--;
+                return DROPPED;
+            }
+            emit(END_OBJECT, null);
+            return 1;
+        }
+
+        private int array(SchemaNode element) throws IOException {
+            int retained = 0;
+            in.beginArray();
+            emit(BEGIN_ARRAY, null);
+            while (in.hasNext()) {
+                if (value(element) != DROPPED) {
+                    retained++;
+                }
+            }
+            in.endArray();
+            emit(END_ARRAY, null);
+            return retained;
+        }
+
+        private int map(SchemaNode element) throws IOException {
+            if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                // Complex keys are copied as is
+                return copy(JsonToken.BEGIN_ARRAY);
+            }
+
+            int retained = 0;
+            in.beginObject();
+            emit(BEGIN_OBJECT, null);
+            while (in.hasNext()) {
+                deferredName = in.nextName();
+                if (value(element) != DROPPED) {
+                    retained++;
+                }
+            }
+            in.endObject();
+            emit(END_OBJECT, null);
+            return retained;
+        }
+
+        /**
+         * Copies a value which is never validated verbatim, nested {@code null} elements &amp; values included,
+         * as Gson would keep them. Only the value itself is omitted when {@code null}.
+         *
+         * @param token next token of reader
+         * @return number of elements of arrays &amp; objects, {@code 1} for all other values
+         */
+        private int copy(JsonToken token) throws IOException {
+            switch (token) {
+                case BEGIN_ARRAY:
+                case BEGIN_OBJECT:
+                    boolean isArray = token == JsonToken.BEGIN_ARRAY;
+                    int retained = 0;
+                    if (isArray) {
+                        in.beginArray();
+                        emit(BEGIN_ARRAY, null);
+                    } else {
+                        in.beginObject();
+                        emit(BEGIN_OBJECT, null);
+                    }
+                    while (in.hasNext()) {
+                        if (!isArray) {
+                            deferredName = in.nextName();
+                        }
+                        JsonToken next = in.peek();
+                        if (next == JsonToken.NULL) {
+                            in.nextNull();
+                            emit(NULL, null);
+                        } else {
+                            copy(next);
+                        }
+                        retained++;
+                    }
+                    if (isArray) {
+                        in.endArray();
+                        emit(END_ARRAY, null);
+                    } else {
+                        in.endObject();
+                        emit(END_OBJECT, null);
+                    }
+                    return retained;
+                case STRING:
+                    emit(STRING, in.nextString());
+                    return 1;
+                case NUMBER:
+                    emit(NUMBER, in.nextString());
+                    return 1;
+                case BOOLEAN:
+                    emit(in.nextBoolean() ? TRUE : FALSE, null);
+                    return 1;
+                case NULL:
+                    in.nextNull();
+                    deferredName = null;
+                    return DROPPED;
+                default:
+                    throw new IllegalStateException("Unexpected " + token + " at path " + in.getPath());
+            }
+        }
+
+        /**
+         * Writes a token, or holds it while validity of an enclosing object is not known.
+         */
+        private void emit(byte kind, String value) throws IOException {
+            if (deferredName != null) {
+                String name = deferredName;
+                deferredName = null;
+                emit(NAME, name);
+            }
+            if (pending == 0) {
+                write(kind, value);
+                return;
+            }
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            kinds[size] = kind;
+            values[size] = value;
+            size++;
+        }
+
+        /**
+         * Innermost held object is known to be valid, held tokens are written once no object is held.
+         */
+        private void release() throws IOException {
+            pending--;
+            if (pending > 0) {
+                return;
+            }
+            for (int index = 0; index < size; index++) {
+                write(kinds[index], values[index]);
+                values[index] = null;
+            }
+            size = 0;
+        }
+
+        private void write(byte kind, String value) throws IOException {
+            switch (kind) {
+                case BEGIN_ARRAY:
+                    out.beginArray();
+                    break;
+                case END_ARRAY:
+                    out.endArray();
+                    break;
+                case BEGIN_OBJECT:
+                    out.beginObject();
+                    break;
+                case END_OBJECT:
+                    out.endObject();
+                    break;
+                case NAME:
+                    out.name(value);
+                    break;
+                case STRING:
+                    out.value(value);
+                    break;
+                case NUMBER:
+                    out.jsonValue(value);
+                    break;
+                case NULL:
+                    out.nullValue();
+                    break;
+                default:
+                    out.value(kind == TRUE);
+                    break;
+            }
+        }
+    }
+}
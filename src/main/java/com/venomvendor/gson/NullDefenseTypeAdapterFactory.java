@@ -20,17 +20,28 @@ import com.google.gson.Gson;
 import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
 import com.google.gson.internal.Primitives;
+import com.google.gson.internal.bind.ArrayTypeAdapter;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import com.venomvendor.gson.ValidationPlan.MandatoryField;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.RetentionPolicy;
-import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Objects;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Adapter for removing <b>null</b> objects &amp; <b>empty</b> Collections, once object is created.
@@ -39,7 +50,9 @@ import java.util.Objects;
  * is called explicitly to retain empty collection. This can be useful incase of search results.
  * <p>
  * This also processes all collection &amp; finally removes {@code null} from Collection,
- * further processes collection to remove all {@code null} from results.<pre>
+ * further processes collection to remove all {@code null} from results.
+ * {@link Map}s &amp; arrays are handled alike, entries with {@code null} key or value are removed
+ * from maps, while arrays are replaced by right-sized copies when the field is writable.<pre>
  *   public class Parent {
  *        &#064;Mandatory
  *        &#064;SerializedName("name")
@@ -60,11 +73,22 @@ import java.util.Objects;
  * is null, however the same is not applicable for {@code Primitive} types.
  * Refer: {@link com.google.gson.internal.Primitives#isPrimitive(Type)}
  * <br>
- * <pre>TypeAdapterFactory typeAdapter = new NullDefenseTypeAdapterFactory(Mandatory.class)
+ * <pre>TypeAdapterFactory typeAdapter = NullDefenseTypeAdapterFactory.builder(Mandatory.class)
  *         // To retain empty collection
  *         .retainEmptyCollection()
  *         // To remove empty collection, this is default
- *         .removeEmptyCollection();
+ *         .removeEmptyCollection()
+ *         // To remove null from collections which are not mandatory
+ *         .compactAllCollections()
+ *         // To count reads &amp; discards per type
+ *         .listener(new NullDefenseMetrics())
+ *         // To reject objects while reading
+ *         .validateWhileReading()
+ *         // To omit invalid objects while writing
+ *         .defendWhileWriting()
+ *         // To discard objects having blank text, in fields marked with NotBlank
+ *         .rule(NotBlank.class, NullDefenseRules.notBlank())
+ *         .build();
  *
  *     Gson gson = new GsonBuilder()
  *         .registerTypeAdapterFactory(typeAdapter)
@@ -77,10 +101,13 @@ import java.util.Objects;
  */
 public final class NullDefenseTypeAdapterFactory implements TypeAdapterFactory {
 
-    /* Annotation by which variables are marked mandatory */
-    private final Class<? extends Annotation> annotatedType;
-    /* When true, Collection#size() == 0 is removed */
-    private boolean discardEmpty;
+    /* Classes whose mandatory fields are cached, unless changed through builder */
+    static final int DEFAULT_MAX_CACHED_TYPES = 4096;
+
+    /* Options, immutable & shared by all adapters created by this factory */
+    private final DefenseConfig config;
+    /* Validates objects, which are not read by Gson */
+    private final NullDefenseGraphValidator graph;
 
     /**
      * Requires annotated class for checking fields with annotation.
@@ -94,13 +121,79 @@ public final class NullDefenseTypeAdapterFactory implements TypeAdapterFactory {
      * @param annotatedType Class used for marking fields as mandatory,
      *                      this has to be of retention type {@link RetentionPolicy#RUNTIME}
      * @throws NullPointerException if annotated class is null
+     * @see #builder(Class)
      */
     public NullDefenseTypeAdapterFactory(Class<? extends Annotation> annotatedType) {
-        if (annotatedType == null) {
-            throw new NullPointerException("Annotation class cannot be null");
-        }
-        this.annotatedType = annotatedType;
-        removeEmptyCollection();
+        this(new Builder(annotatedType).toConfig());
+    }
+
+    private NullDefenseTypeAdapterFactory(DefenseConfig config) {
+        this.config = config;
+        this.graph = new NullDefenseGraphValidator(config, config.maxDepth);
+    }
+
+    /**
+     * @param annotatedType Class used for marking fields as mandatory,
+     *                      this has to be of retention type {@link RetentionPolicy#RUNTIME}
+     * @return builder with default options
+     * @throws NullPointerException if annotated class is null
+     */
+    public static Builder builder(Class<? extends Annotation> annotatedType) {
+        return new Builder(annotatedType);
+    }
+
+    /**
+     * @return builder having options of current instance
+     */
+    public Builder toBuilder() {
+        return new Builder(config);
+    }
+
+    /**
+     * @return options of current instance
+     */
+    DefenseConfig config() {
+        return config;
+    }
+
+    /**
+     * @return statistics of mandatory fields cached per class, by this instance
+     * @see Builder#maxCachedTypes(int)
+     */
+    public NullDefenseCacheStats cacheStats() {
+        return config.plans.stats();
+    }
+
+    /**
+     * Applies rules of this factory to an object which was not read through Gson, e.g. read from a cache or
+     * built by hand. Invalid nested objects are removed &amp; collections are compacted in place, as while
+     * reading, using the same cached plans. Objects without nested objects are checked without any allocation.
+     * <p>
+     * Given object graph is modified in place, even when object turns out to be invalid or an exception is
+     * thrown midway. Collections &amp; maps which cannot be modified are replaced by compacted copies where their
+     * field allows, else are left as is. Use {@link #validate(Object)} to check without any modification.
+     *
+     * @param value object to clean
+     * @param <T>   Type of object.
+     * @return same object if valid, else {@code null}
+     * @throws IllegalStateException if object is nested deeper than allowed
+     * @see NullDefenseGraphValidator
+     * @see Builder#maxDepth(int)
+     */
+    public <T> T sanitize(T value) {
+        return graph.sanitize(value);
+    }
+
+    /**
+     * Same check as {@link #sanitize(Object)}, without modifying the object.
+     *
+     * @param value object to check
+     * @return {@code true} if object is valid, i.e. {@link #sanitize(Object)} would not return {@code null}
+     * @throws IllegalStateException if object is nested deeper than allowed
+     * @see Builder#maxDepth(int)
+     */
+    public boolean validate(Object value) {
+        return graph.isValid(value);
     }
 
     /**
@@ -108,29 +201,687 @@ public final class NullDefenseTypeAdapterFactory implements TypeAdapterFactory {
      * null is removed irrespective of any Type.
      *
      * @return A copy of current instance
+     * @see Builder#removeEmptyCollection()
      */
     public NullDefenseTypeAdapterFactory removeEmptyCollection() {
-        discardEmpty = true;
-        return this;
+        return toBuilder().removeEmptyCollection().build();
     }
 
     /**
      * This will <b>RETAIN</b> empty Collection. i.e {@code collection.isEmpty()}
      *
      * @return A copy of current instance
+     * @see Builder#retainEmptyCollection()
      */
     public NullDefenseTypeAdapterFactory retainEmptyCollection() {
-        discardEmpty = false;
-        return this;
+        return toBuilder().retainEmptyCollection().build();
+    }
+
+    /**
+     * @return A copy of current instance
+     * @see Builder#compactAllCollections()
+     */
+    public NullDefenseTypeAdapterFactory compactAllCollections() {
+        return toBuilder().compactAllCollections().build();
+    }
+
+    /**
+     * @param listener listener receiving events, {@link NullDefenseListener#NONE} to disable
+     * @return A copy of current instance
+     * @see Builder#listener(NullDefenseListener)
+     */
+    public NullDefenseTypeAdapterFactory listener(NullDefenseListener listener) {
+        return toBuilder().listener(listener).build();
+    }
+
+    /**
+     * @return A copy of current instance
+     * @see Builder#validateWhileReading()
+     */
+    public NullDefenseTypeAdapterFactory validateWhileReading() {
+        return toBuilder().validateWhileReading().build();
+    }
+
+    /**
+     * @return A copy of current instance
+     * @see Builder#defendWhileWriting()
+     */
+    public NullDefenseTypeAdapterFactory defendWhileWriting() {
+        return toBuilder().defendWhileWriting().build();
+    }
+
+    /**
+     * @param sampleRate share of discards to report, {@code 1.0} to report all
+     * @return A copy of current instance
+     * @see Builder#diagnostics(double)
+     */
+    public NullDefenseTypeAdapterFactory diagnostics(double sampleRate) {
+        return toBuilder().diagnostics(sampleRate).build();
+    }
+
+    /**
+     * @return A copy of current instance
+     * @see Builder#adaptiveFieldOrder()
+     */
+    public NullDefenseTypeAdapterFactory adaptiveFieldOrder() {
+        return toBuilder().adaptiveFieldOrder().build();
+    }
+
+    /**
+     * @param annotationType annotation marking fields checked by rule
+     * @param rule           rule checking marked fields
+     * @param <A>            Type of annotation.
+     * @return A copy of current instance
+     * @see Builder#rule(Class, NullDefenseRule)
+     */
+    public <A extends Annotation> NullDefenseTypeAdapterFactory rule(Class<A> annotationType,
+                                                                     NullDefenseRule<? super A> rule) {
+        return toBuilder().rule(annotationType, rule).build();
+    }
+
+    /**
+     * @param pool      pool on which elements are validated
+     * @param threshold minimum number of elements, for a collection to be validated in parallel
+     * @return A copy of current instance
+     * @see Builder#validateInParallel(ForkJoinPool, int)
+     */
+    public NullDefenseTypeAdapterFactory validateInParallel(ForkJoinPool pool, int threshold) {
+        return toBuilder().validateInParallel(pool, threshold).build();
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Types which can never be rejected, such as primitives, arrays &amp; classes without any
+     * mandatory field, are not wrapped &amp; are read directly by Gson.
      */
     @Override
     public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        boolean validateWhileReading = config.validateWhileReading;
+        boolean wrapsStream = validateWhileReading || config.defendWhileWriting;
+        if (rawType.isPrimitive() || Primitives.isWrapperType(rawType)
+                || (rawType.isArray() && !wrapsStream)) {
+            // Nothing to validate, elements of arrays are validated by their own adapter.
+            return null;
+        }
+
         TypeAdapter<T> author = gson.getDelegateAdapter(this, type);
-        return new DefensiveAdapter<>(author, discardEmpty, annotatedType);
+        boolean reflective = author instanceof ReflectiveTypeAdapterFactory.Adapter;
+        boolean elements = writesElements(author, rawType);
+        if (config.isParallel() && Collection.class.isAssignableFrom(rawType)) {
+            TypeToken<?> elementType = TypeToken.get(SchemaNode.elementType(type.getType()));
+            author = new ParallelAdapter<>(author, gson, elementType, config.parallelPool,
+                    config.parallelThreshold);
+        }
+        if (cannotBeRejected(rawType, reflective)) {
+            if (wrapsStream && (reflective || isContainer(rawType))) {
+                // Nested objects must share one StreamingReader & DefendingWriter
+                return new StreamingAdapter<>(author, config, Map.class.isAssignableFrom(rawType), elements);
+            }
+            return author;
+        }
+
+        Map<String, String> mandatoryNames = null;
+        if (validateWhileReading && reflective) {
+            mandatoryNames = config.plans.get(rawType).serializedNames(rawType, gson.fieldNamingStrategy());
+        }
+        return new DefensiveAdapter<>(author, rawType, config, Map.class.isAssignableFrom(rawType),
+                mandatoryNames, elements);
+    }
+
+    /**
+     * Checks if objects read by given adapter can never have a mandatory field.
+     * This is known only when declared class has no mandatory field &amp; objects read
+     * are exactly of declared class, i.e. declared class is final, belongs to JDK or
+     * is instantiated by Gson's reflective adapter.
+     *
+     * @param rawType    declared class
+     * @param reflective when true, declared class is read by Gson's reflective adapter
+     * @return {@code true} if validation can be skipped
+     */
+    private boolean cannotBeRejected(Class<?> rawType, boolean reflective) {
+        if (!config.plans.get(rawType).isEmpty()) {
+            return false;
+        }
+        return Modifier.isFinal(rawType.getModifiers())
+                || rawType.getClassLoader() == null
+                || reflective;
+    }
+
+    /**
+     * Only arrays written by these adapters hold elements, others such as key &amp; value pairs of maps
+     * are positional.
+     *
+     * @param author  adapter by which Gson writes declared class
+     * @param rawType declared class
+     * @return {@code true} if author is Gson's adapter for collections or arrays
+     */
+    private static boolean writesElements(TypeAdapter<?> author, Class<?> rawType) {
+        return rawType.isArray()
+                ? author instanceof ArrayTypeAdapter
+                : Collection.class.isAssignableFrom(rawType)
+                && author.getClass().getName().equals(SchemaNode.COLLECTION_ADAPTER);
+    }
+
+    /**
+     * @param rawType declared class
+     * @return {@code true} if values of declared class may hold objects
+     */
+    private static boolean isContainer(Class<?> rawType) {
+        return rawType.isArray()
+                || Collection.class.isAssignableFrom(rawType)
+                || Map.class.isAssignableFrom(rawType);
+    }
+
+    /**
+     * Reads through given adapter, when validating while reading.
+     * Reader is wrapped by the {@link StreamingReader} of current thread, unless it already is.
+     *
+     * @param author adapter reading the value
+     * @param reader reader received from Gson
+     * @param unwrap when true, author requires actual reader, i.e. Gson's Map adapter
+     * @return read value
+     * @throws IOException if thrown by author
+     */
+    private static <T> T readStreaming(TypeAdapter<T> author, JsonReader reader, boolean unwrap)
+            throws IOException {
+        if (reader instanceof StreamingReader) {
+            return author.read(unwrap ? ((StreamingReader) reader).unwrap() : reader);
+        }
+        if (unwrap) {
+            return author.read(reader);
+        }
+        StreamingReader streamingReader = StreamingReader.acquire(reader);
+        try {
+            return author.read(streamingReader);
+        } finally {
+            streamingReader.release();
+        }
+    }
+
+    /**
+     * Builds an immutable {@link NullDefenseTypeAdapterFactory}. Builder itself is not thread safe,
+     * while built factories are, &amp; can be shared by any number of threads.
+     * <pre>
+     * TypeAdapterFactory typeAdapter = NullDefenseTypeAdapterFactory.builder(Mandatory.class)
+     *         .retainEmptyCollection()
+     *         .validateWhileReading()
+     *         .build();
+     * </pre>
+     */
+    public static final class Builder {
+        private final Class<? extends Annotation> annotatedType;
+        private boolean discardEmpty = true;
+        private boolean compactAll;
+        private boolean validateWhileReading;
+        private boolean defendWhileWriting;
+        private boolean adaptiveOrder;
+        private final Map<Class<? extends Annotation>, NullDefenseRule<?>> rules = new LinkedHashMap<>();
+        private ForkJoinPool parallelPool;
+        private int parallelThreshold;
+        private int maxCachedTypes = DEFAULT_MAX_CACHED_TYPES;
+        private int maxDepth = NullDefenseGraphValidator.DEFAULT_MAX_DEPTH;
+        private NullDefenseListener listener = NullDefenseListener.NONE;
+        private double sampleRate;
+
+        private Builder(Class<? extends Annotation> annotatedType) {
+            if (annotatedType == null) {
+                throw new NullPointerException("Annotation class cannot be null");
+            }
+            this.annotatedType = annotatedType;
+        }
+
+        private Builder(DefenseConfig config) {
+            this.annotatedType = config.annotatedType;
+            this.discardEmpty = config.discardEmpty;
+            this.compactAll = config.compactAll;
+            this.validateWhileReading = config.validateWhileReading;
+            this.defendWhileWriting = config.defendWhileWriting;
+            this.adaptiveOrder = config.adaptiveOrder;
+            this.rules.putAll(config.rules);
+            this.parallelPool = config.parallelPool;
+            this.parallelThreshold = config.parallelThreshold;
+            this.maxCachedTypes = config.maxCachedTypes;
+            this.maxDepth = config.maxDepth;
+            this.listener = config.listener;
+            this.sampleRate = config.sampleRate;
+        }
+
+        /**
+         * This will remove empty Collection. i.e {@code collection.isEmpty()}. By default
+         * null is removed irrespective of any Type.
+         *
+         * @return current builder
+         */
+        public Builder removeEmptyCollection() {
+            discardEmpty = true;
+            return this;
+        }
+
+        /**
+         * This will <b>RETAIN</b> empty Collection. i.e {@code collection.isEmpty()}
+         *
+         * @return current builder
+         */
+        public Builder retainEmptyCollection() {
+            discardEmpty = false;
+            return this;
+        }
+
+        /**
+         * This will remove {@code null} from every Collection field, not only from mandatory ones.
+         * Empty collections of fields which are not mandatory are always retained.
+         *
+         * @return current builder
+         */
+        public Builder compactAllCollections() {
+            compactAll = true;
+            return this;
+        }
+
+        /**
+         * This will report reads, discards, compaction &amp; validation time of every validated
+         * type to given listener, see {@link NullDefenseMetrics}.
+         * Types which can never be rejected are not reported.
+         *
+         * @param listener listener receiving events, {@link NullDefenseListener#NONE} to disable
+         * @return current builder
+         * @throws NullPointerException if listener is null
+         */
+        public Builder listener(NullDefenseListener listener) {
+            if (listener == null) {
+                throw new NullPointerException("Listener cannot be null");
+            }
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * This will reject an object as soon as any of its mandatory field is read as {@code null},
+         * rest of the object is skipped without being built. Missing fields &amp; empty collections
+         * are known only after whole object is read, hence are validated as usual.
+         * <p>
+         * Useful when a large share of objects is invalid, as invalid objects are not allocated.
+         *
+         * @return current builder
+         */
+        public Builder validateWhileReading() {
+            validateWhileReading = true;
+            return this;
+        }
+
+        /**
+         * This will write {@code null} in place of invalid objects, during {@code toJson}.
+         * Invalid objects &amp; {@code null} elements are omitted from arrays.
+         * Objects are checked against the same mandatory fields as while reading, without
+         * being modified, &amp; are written straight to the writer.
+         *
+         * @return current builder
+         */
+        public Builder defendWhileWriting() {
+            defendWhileWriting = true;
+            return this;
+        }
+
+        /**
+         * This will report JSON path of discarded objects to listener, through
+         * {@link NullDefenseListener#onDiscard(Class, String, String)}. Only given share of discards is
+         * sampled, path is built only for sampled discards, hence nothing is allocated for others.
+         * Lookups of cached classes are counted too, see {@link NullDefenseCacheStats#hits()}.
+         * Has no effect unless a listener is registered.
+         *
+         * @param sampleRate share of discards to report, {@code 1.0} to report all
+         * @return current builder
+         * @throws IllegalArgumentException if sample rate is not within {@code (0, 1]}
+         */
+        public Builder diagnostics(double sampleRate) {
+            if (!(sampleRate > 0 && sampleRate <= 1)) {
+                throw new IllegalArgumentException("Sample rate must be within (0, 1]: " + sampleRate);
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * This will check mandatory fields of each class in order of observed rejections, instead of
+         * declaration order. Rejections are counted per field on a sample of checks &amp; fields are reordered
+         * periodically, such that the field rejecting most objects is checked first. Nothing is locked while
+         * reading.
+         * <p>
+         * Listener receives whichever field rejected an object first, which depends on current order.
+         *
+         * @return current builder
+         */
+        public Builder adaptiveFieldOrder() {
+            adaptiveOrder = true;
+            return this;
+        }
+
+        /**
+         * This will discard objects whose fields marked with given annotation fail the rule, in addition to
+         * mandatory fields being {@code null} or empty. Rules are compiled once per field &amp; checked in the same
+         * pass as mandatory fields, see {@link NullDefenseRule}. Registering another rule for the same
+         * annotation replaces the previous one.
+         *
+         * @param annotationType annotation marking fields checked by rule,
+         *                       this has to be of retention type {@link RetentionPolicy#RUNTIME}
+         * @param rule           rule checking marked fields, see {@link NullDefenseRules}
+         * @param <A>            Type of annotation.
+         * @return current builder
+         * @throws NullPointerException if annotation class or rule is null
+         */
+        public <A extends Annotation> Builder rule(Class<A> annotationType, NullDefenseRule<? super A> rule) {
+            if (annotationType == null) {
+                throw new NullPointerException("Annotation class cannot be null");
+            }
+            if (rule == null) {
+                throw new NullPointerException("Rule cannot be null");
+            }
+            rules.put(annotationType, rule);
+            return this;
+        }
+
+        /**
+         * This will validate elements of collections having at least {@code threshold} elements
+         * in parallel, on given pool. Order of elements is preserved.
+         * <p>
+         * Useful for batch imports, where collections hold tens of thousands of objects.
+         *
+         * @param pool      pool on which elements are validated
+         * @param threshold minimum number of elements, for a collection to be validated in parallel
+         * @return current builder
+         * @throws NullPointerException     if pool is null
+         * @throws IllegalArgumentException if threshold is less than 1
+         */
+        public Builder validateInParallel(ForkJoinPool pool, int threshold) {
+            if (pool == null) {
+                throw new NullPointerException("Pool cannot be null");
+            }
+            if (threshold < 1) {
+                throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+            }
+            parallelPool = pool;
+            parallelThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Mandatory fields are resolved once per class &amp; cached, without keeping the class or its
+         * class loader alive. Once more than {@code max} classes are cached, those resolved first are evicted
+         * &amp; resolved again when needed.
+         * Defaults to {@value NullDefenseTypeAdapterFactory#DEFAULT_MAX_CACHED_TYPES}.
+         *
+         * @param max maximum number of classes to cache
+         * @return current builder
+         * @throws IllegalArgumentException if max is less than 1
+         */
+        public Builder maxCachedTypes(int max) {
+            if (max < 1) {
+                throw new IllegalArgumentException("Maximum must be positive: " + max);
+            }
+            maxCachedTypes = max;
+            return this;
+        }
+
+        /**
+         * Objects which are not read by Gson are walked by {@link NullDefenseTypeAdapterFactory#sanitize(Object)}
+         * &amp; {@link NullDefenseTypeAdapterFactory#validate(Object)}, which fail on graphs nested deeper than
+         * {@code max} objects &amp; containers, root included.
+         * Defaults to {@value NullDefenseGraphValidator#DEFAULT_MAX_DEPTH}.
+         *
+         * @param max maximum nesting of objects &amp; containers
+         * @return current builder
+         * @throws IllegalArgumentException if max is less than 1
+         */
+        public Builder maxDepth(int max) {
+            if (max < 1) {
+                throw new IllegalArgumentException("Max depth must be positive: " + max);
+            }
+            maxDepth = max;
+            return this;
+        }
+
+        /**
+         * @return new factory, unaffected by further changes to this builder
+         */
+        public NullDefenseTypeAdapterFactory build() {
+            return new NullDefenseTypeAdapterFactory(toConfig());
+        }
+
+        private DefenseConfig toConfig() {
+            return new DefenseConfig(annotatedType, discardEmpty, compactAll, validateWhileReading,
+                    defendWhileWriting, adaptiveOrder, Collections.unmodifiableMap(new LinkedHashMap<>(rules)),
+                    parallelPool, parallelThreshold, maxCachedTypes, maxDepth, listener, sampleRate);
+        }
+    }
+
+    /**
+     * Adapter for types that are never rejected, passes on a single {@link StreamingReader}
+     * to nested objects when validating while reading &amp; a single {@link DefendingWriter}
+     * when defending while writing.
+     *
+     * @param <T> Type of object.
+     */
+    private static final class StreamingAdapter<T> extends TypeAdapter<T> {
+        /* Registered type adapter for current type */
+        private final TypeAdapter<T> author;
+        /* Options of factory */
+        private final DefenseConfig config;
+        /* When true, author requires actual reader */
+        private final boolean unwrap;
+        /* When true, author writes elements of a collection or an array */
+        private final boolean elements;
+
+        StreamingAdapter(TypeAdapter<T> author, DefenseConfig config, boolean unwrap, boolean elements) {
+            this.author = author;
+            this.config = config;
+            this.unwrap = unwrap;
+            this.elements = elements;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (!config.defendWhileWriting) {
+                author.write(out, value);
+                return;
+            }
+            DefendingWriter writer = DefendingWriter.wrap(out);
+            if (elements && value != null) {
+                writer.omitNullElements();
+            }
+            author.write(writer, value);
+        }
+
+        @Override
+        public T read(JsonReader reader) throws IOException {
+            return config.validateWhileReading ? readStreaming(author, reader, unwrap) : author.read(reader);
+        }
+    }
+
+    /**
+     * Per thread state, telling adapter of collection elements to defer validation,
+     * so that elements are validated in parallel once whole collection is read.
+     * Only the adapter of elements defers, objects nested within elements are validated as usual.
+     */
+    private static final class Deferral {
+        private static final ThreadLocal<Deferral> CURRENT = ThreadLocal.withInitial(Deferral::new);
+
+        /* Adapter of elements being read, which defers validation, null when nothing is deferred */
+        TypeAdapter<?> expected;
+        /* Adapter of elements, whose validation was deferred */
+        DefensiveAdapter<Object> adapter;
+    }
+
+    /**
+     * Adapter for collections, elements are read without validation &amp; validated once
+     * whole collection is read, in parallel for large collections.
+     * Elements found invalid are replaced by {@code null}, same as during sequential read.
+     *
+     * @param <T> Type of collection.
+     */
+    private static final class ParallelAdapter<T> extends TypeAdapter<T> {
+        /* Registered type adapter for current type */
+        private final TypeAdapter<T> author;
+        /* Gson, resolving adapter of elements */
+        private final Gson gson;
+        /* Declared type of elements */
+        private final TypeToken<?> elementType;
+        /* Pool validating elements */
+        private final ForkJoinPool pool;
+        /* Minimum size of collection, to be validated in parallel */
+        private final int threshold;
+        /* Adapter of elements, resolved on first read as it may still be created along with this one */
+        private volatile TypeAdapter<?> elements;
+
+        ParallelAdapter(TypeAdapter<T> author, Gson gson, TypeToken<?> elementType, ForkJoinPool pool,
+                        int threshold) {
+            this.author = author;
+            this.gson = gson;
+            this.elementType = elementType;
+            this.pool = pool;
+            this.threshold = threshold;
+        }
+
+        /**
+         * @return adapter by which Gson reads elements, same instance on every call
+         */
+        private TypeAdapter<?> elements() {
+            TypeAdapter<?> adapter = elements;
+            if (adapter == null) {
+                adapter = gson.getAdapter(elementType);
+                elements = adapter;
+            }
+            return adapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            author.write(out, value);
+        }
+
+        @Override
+        public T read(JsonReader reader) throws IOException {
+            Deferral deferral = Deferral.CURRENT.get();
+            TypeAdapter<?> expected = deferral.expected;
+            DefensiveAdapter<Object> adapter = deferral.adapter;
+
+            deferral.expected = elements();
+            deferral.adapter = null;
+            T result;
+            DefensiveAdapter<Object> elements;
+            try {
+                result = author.read(reader);
+                elements = deferral.adapter;
+            } finally {
+                deferral.expected = expected;
+                deferral.adapter = adapter;
+            }
+
+            if (result != null && elements != null) {
+                validate((Collection<?>) result, elements, reader);
+            }
+            return result;
+        }
+
+        /**
+         * @param collection collection whose elements were read without validation
+         * @param elements   adapter of elements
+         * @param reader     reader positioned right after collection, for diagnostics
+         */
+        @SuppressWarnings("unchecked")
+        private void validate(Collection<?> collection, DefensiveAdapter<Object> elements, JsonReader reader) {
+            if (collection.size() < threshold && collection instanceof List) {
+                // Small enough, validate in place
+                ListIterator<Object> iterator = ((List<Object>) collection).listIterator();
+                for (int index = 0; iterator.hasNext(); index++) {
+                    Object element = iterator.next();
+                    if (element != null && elements.validate(element, reader, index) == null) {
+                        iterator.set(null);
+                    }
+                }
+                return;
+            }
+
+            Object[] values = collection.toArray();
+            Object[] results = new Object[values.length];
+            ValidateTask task = new ValidateTask(elements, reader, values, results, 0, values.length,
+                    Math.max(MIN_LEAF, values.length / (pool.getParallelism() * 4)));
+            if (values.length < threshold) {
+                task.compute();
+            } else {
+                pool.invoke(task);
+            }
+            writeBack((Collection<Object>) collection, values, results);
+        }
+
+        /**
+         * Replaces invalid elements by {@code null}, keeping order of elements.
+         *
+         * @param collection collection that was validated
+         * @param values     elements before validation
+         * @param results    elements after validation
+         */
+        private static void writeBack(Collection<Object> collection, Object[] values, Object[] results) {
+            if (Arrays.equals(values, results)) {
+                return;
+            }
+            if (collection instanceof List) {
+                ListIterator<Object> iterator = ((List<Object>) collection).listIterator();
+                for (int index = 0; iterator.hasNext(); index++) {
+                    iterator.next();
+                    if (results[index] != values[index]) {
+                        iterator.set(results[index]);
+                    }
+                }
+            } else {
+                collection.clear();
+                collection.addAll(Arrays.asList(results));
+            }
+        }
+    }
+
+    /* Minimum number of elements validated by a single task */
+    private static final int MIN_LEAF = 64;
+
+    /**
+     * Validates a range of elements, splitting it until it is small enough.
+     */
+    private static final class ValidateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient DefensiveAdapter<Object> elements;
+        private final transient JsonReader reader;
+        private final transient Object[] values;
+        private final transient Object[] results;
+        private final int from;
+        private final int to;
+        private final int leaf;
+
+        ValidateTask(DefensiveAdapter<Object> elements, JsonReader reader, Object[] values, Object[] results,
+                     int from, int to, int leaf) {
+            this.elements = elements;
+            this.reader = reader;
+            this.values = values;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leaf) {
+                for (int index = from; index < to; index++) {
+                    Object value = values[index];
+                    results[index] = value == null ? null : elements.validate(value, reader, index);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ValidateTask(elements, reader, values, results, from, middle, leaf),
+                    new ValidateTask(elements, reader, values, results, middle, to, leaf));
+        }
     }
 
     /**
@@ -143,142 +894,207 @@ public final class NullDefenseTypeAdapterFactory implements TypeAdapterFactory {
     private static final class DefensiveAdapter<T> extends TypeAdapter<T> {
         /* Registered type adapter for current type */
         private final TypeAdapter<T> author;
-        /* Annotation by which variables are marked mandatory */
-        private final Class<? extends Annotation> annotatedType;
-        /* When true, Collection#size() == 0 is removed */
-        private final boolean discardEmpty;
+        /* Declared class, reported for objects rejected while reading */
+        private final Class<?> rawType;
+        /* Options of factory */
+        private final DefenseConfig config;
+        /* Mandatory fields per class */
+        private final PlanCache plans;
+        /* When true, author requires actual reader */
+        private final boolean unwrap;
+        /* Names of mandatory fields by serialized names, null unless read by Gson's reflective adapter */
+        private final Map<String, String> mandatoryNames;
+        /* When false, no event is reported & validation is not timed */
+        private final boolean instrumented;
+        /* Checks objects against their plans */
+        private final PlanChecker checker;
+        /* When true, author writes elements of a collection or an array */
+        private final boolean elements;
 
-        DefensiveAdapter(TypeAdapter<T> author, boolean discardEmpty, Class<? extends Annotation> annotatedType) {
+        DefensiveAdapter(TypeAdapter<T> author, Class<?> rawType, DefenseConfig config, boolean unwrap,
+                         Map<String, String> mandatoryNames, boolean elements) {
             this.author = author;
-            this.discardEmpty = discardEmpty;
-            this.annotatedType = annotatedType;
+            this.rawType = rawType;
+            this.config = config;
+            this.plans = config.plans;
+            this.unwrap = unwrap;
+            this.mandatoryNames = mandatoryNames;
+            this.instrumented = config.instrumented;
+            this.checker = new PlanChecker(config);
+            this.elements = elements;
         }
 
         @Override
         public void write(JsonWriter out, T value) throws IOException {
-            author.write(out, value);
+            if (!config.defendWhileWriting) {
+                author.write(out, value);
+                return;
+            }
+
+            DefendingWriter writer = DefendingWriter.wrap(out);
+            MandatoryField rejectedBy = value == null ? null : checker.rejectedBy(value);
+            if (rejectedBy != null) {
+                if (instrumented) {
+                    config.listener.onDiscard(value.getClass(), rejectedBy.name);
+                }
+                // Omitted, when element of a collection or an array
+                writer.nullValue();
+                return;
+            }
+            if (elements && value != null) {
+                writer.omitNullElements();
+            }
+            author.write(writer, value);
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public T read(JsonReader reader) throws IOException {
             // Usually non-null
             if (reader == null) {
                 return null;
             }
+            // Validation is deferred, when read as element of a collection validated in parallel.
+            Deferral deferral = config.isParallel() ? Deferral.CURRENT.get() : null;
+            TypeAdapter<?> expected = deferral == null ? null : deferral.expected;
+            boolean deferred = expected == this;
+            if (expected != null) {
+                // Nested objects are validated as usual
+                deferral.expected = null;
+            }
+
             // Get read value, after processing with gson
             // This is where Object is created from json
-            T result = author.read(reader);
+            T result;
+            try {
+                result = readData(reader);
+            } finally {
+                if (expected != null) {
+                    deferral.expected = expected;
+                }
+                if (deferred) {
+                    deferral.adapter = (DefensiveAdapter<Object>) this;
+                }
+            }
 
-            // if null, return it.
-            if (result == null) {
-                return null;
+            // if null or deferred, return it.
+            if (result == null || deferred) {
+                return result;
             }
 
             // We have data, lets process it.
-            return getFilteredData(result);
+            return validate(result, reader, -1);
         }
 
         /**
-         * Process data annotated with {@link #annotatedType}
+         * Validates data, reporting it to listener when instrumented.
          *
          * @param result data to process
-         * @return same result if not null or conditional empty, else {@code null}
+         * @param reader reader positioned right after data or its collection, for diagnostics
+         * @param index  index of data in its collection, {@code -1} if reader is positioned right after data
+         * @return same result if valid, else {@code null}
          */
-        private T getFilteredData(T result) {
-            Class<?> clz = result.getClass();
-            boolean isMarkedInClz = clz.isAnnotationPresent(annotatedType);
-
-            for (Field field : clz.getDeclaredFields()) {
-                if (field.getType().isPrimitive() || Primitives.isWrapperType(field.getType())) {
-                    // Skip primitives and their boxed types
-                    continue;
-                }
-                if (isNotValid(result, isMarkedInClz, field)) {
-                    // Discard result & return null.
-                    return null;
-                }
+        private T validate(T result, JsonReader reader, int index) {
+            if (!instrumented) {
+                return getFilteredData(result, reader, index);
             }
-
-            // Finally, we have valid data.
-            return result;
+            Class<?> type = result.getClass();
+            config.listener.onRead(type);
+            long start = System.nanoTime();
+            T valid = getFilteredData(result, reader, index);
+            config.listener.onValidated(type, System.nanoTime() - start);
+            return valid;
         }
 
         /**
-         * @param result        data to process
-         * @param isMarkedInClz is marked in class level, ie. all fields are mandatory
-         * @param field         declared variable in current object
-         * @return {@code true} if data is invalid
+         * @param reader reader received from Gson
+         * @return read object, {@code null} if rejected while reading
+         * @throws IOException if thrown by author
          */
-        private boolean isNotValid(T result, boolean isMarkedInClz, Field field) {
-            // Check if current field is marked
-            boolean isMarked = isMarkedInClz || field.isAnnotationPresent(annotatedType);
-
-            return isMarked && containsInvalidData(result, field);
+        private T readData(JsonReader reader) throws IOException {
+            if (mandatoryNames != null) {
+                return readTracked(reader);
+            }
+            return config.validateWhileReading ? readStreaming(author, reader, unwrap) : author.read(reader);
         }
 
         /**
-         * Check if data contains null or empty objects only on annotated fields
+         * Reads object while tracking its mandatory names, see {@link StreamingReader}.
          *
-         * @param result data to process
-         * @param field  declared variable in current object
-         * @return {@code true} if data is invalid
+         * @param reader reader received from Gson
+         * @return read object, {@code null} if rejected while reading
+         * @throws IOException if thrown by author
          */
-        private boolean containsInvalidData(T result, Field field) {
-            boolean accessible = field.isAccessible();
-            field.setAccessible(true);
+        private T readTracked(JsonReader reader) throws IOException {
+            boolean acquired = !(reader instanceof StreamingReader);
+            StreamingReader streamingReader = acquired
+                    ? StreamingReader.acquire(reader)
+                    : (StreamingReader) reader;
+            streamingReader.push(mandatoryNames);
+            T result;
+            String rejectedBy;
             try {
-                // Validate data
-                return hasInvalidData(result, field);
+                result = author.read(streamingReader);
             } finally {
-                field.setAccessible(accessible);
+                rejectedBy = streamingReader.pop();
+                if (acquired) {
+                    streamingReader.release();
+                }
+            }
+            if (rejectedBy == null) {
+                return result;
             }
+            if (instrumented) {
+                config.listener.onRead(rawType);
+                config.listener.onDiscard(rawType, rejectedBy);
+                diagnose(rawType, rejectedBy, reader, -1);
+            }
+            return null;
         }
 
         /**
-         * Check if data contains null or empty objects
+         * Process mandatory fields of data, as resolved in its {@link ValidationPlan} &amp;
+         * compacts its other collections, maps &amp; arrays, when enabled
          *
          * @param result data to process
-         * @param field  declared variable in current object
-         * @return {@code true} if data is invalid
+         * @param reader reader positioned right after data or its collection, for diagnostics
+         * @param index  index of data in its collection, {@code -1} if reader is positioned right after data
+         * @return same result if not null or conditional empty, else {@code null}
          */
-        private boolean hasInvalidData(T result, Field field) {
-            Object value;
-            try {
-                // Lil, costly operation.
-                value = field.get(result);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException("Failed to access field: " + field.getName(), e);
+        private T getFilteredData(T result, JsonReader reader, int index) {
+            MandatoryField rejectedBy = checker.reject(result, plans.get(result.getClass()));
+            if (rejectedBy == null) {
+                // Finally, we have valid data.
+                return result;
             }
 
-            // Check for emptiness
-            return isEmpty(value);
-        }
-
-        /**
-         * Checks if data is either null or empty
-         *
-         * @param value data to process
-         * @return {@code true} if data is invalid
-         */
-        private boolean isEmpty(Object value) {
-            return value == null || isEmptyCollection(value);
+            if (instrumented) {
+                config.listener.onDiscard(result.getClass(), rejectedBy.name);
+                diagnose(result.getClass(), rejectedBy.name, reader, index);
+            }
+            // Discard result & return null.
+            return null;
         }
 
         /**
-         * Checks if data is of type collection &amp; removes all null items from collection,
-         * before checking for total number of items in it.
+         * Reports path of a discard to listener, when diagnostics are enabled &amp; the discard is sampled.
+         * Path is built only once sampled.
          *
-         * @param value data to process
-         * @return {@code true} if data is invalid
+         * @param type   class of discarded object
+         * @param field  name of mandatory field, which was {@code null} or empty
+         * @param reader reader positioned right after object or its collection
+         * @param index  index of object in its collection, {@code -1} if reader is positioned right after object
          */
-        private boolean isEmptyCollection(Object value) {
-            if (value instanceof Collection) {
-                Collection<?> subCollection = (Collection<?>) value;
-                subCollection.removeIf(Objects::isNull);
-                // Remove object if collection is empty.
-                return discardEmpty && subCollection.isEmpty();
+        private void diagnose(Class<?> type, String field, JsonReader reader, int index) {
+            if (!config.diagnosed
+                    || (config.sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= config.sampleRate)) {
+                return;
             }
-            return false;
+            String path = reader.getPreviousPath();
+            if (index >= 0) {
+                path = path + '[' + index + ']';
+            }
+            config.listener.onDiscard(type, field, path);
         }
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Compile time view of mandatory fields of a single class, generated by the annotation processor
+ * of {@code processor} module, which is built along with this library but not published.
+ * <p>
+ * For a class {@code com.example.Parent}, generated validator is
+ * {@code com.example.Parent_NullDefenseValidator}, binary name is kept for nested classes, e.g.
+ * {@code com.example.Outer$Inner_NullDefenseValidator}, hence validated class is known by name alone.
+ * When present &amp; generated for the same annotation, {@link NullDefenseTypeAdapterFactory} reads
+ * mandatory fields through it, without any reflection. Otherwise fields are resolved reflectively.
+ * <pre>
+ * dependencies {
+ *     annotationProcessor(project(":processor"))
+ * }
+ *
+ * tasks.withType&lt;JavaCompile&gt; {
+ *     options.compilerArgs.add("-Anulldefense.annotation=com.example.Mandatory")
+ * }
+ * </pre>
+ *
+ * @param <T> Type of validated object.
+ */
+public interface NullDefenseValidator<T> {
+
+    /**
+     * Suffix appended to name of validated class, to get name of generated validator.
+     */
+    String SUFFIX = "_NullDefenseValidator";
+
+    /**
+     * @return annotation by which fields were marked mandatory, when this was generated
+     */
+    Class<? extends Annotation> annotationType();
+
+    /**
+     * @return number of mandatory fields
+     */
+    int size();
+
+    /**
+     * @param index index of mandatory field, {@code 0 <= index < size()}
+     * @return name of declared variable
+     */
+    String name(int index);
+
+    /**
+     * @param index index of mandatory field, {@code 0 <= index < size()}
+     * @return declared type of variable
+     */
+    Class<?> type(int index);
+
+    /**
+     * @param target object holding the field
+     * @param index  index of mandatory field, {@code 0 <= index < size()}
+     * @return current value of field
+     */
+    Object get(T target, int index);
+
+    /**
+     * Array fields are replaced by compacted copies, when writable.
+     *
+     * @param index index of mandatory field, {@code 0 <= index < size()}
+     * @return {@code true} if field can be written through {@link #set(Object, int, Object)}
+     */
+    default boolean isWritable(int index) {
+        return false;
+    }
+
+    /**
+     * @param target object holding the field
+     * @param index  index of mandatory field, {@code 0 <= index < size()}
+     * @param value  new value of field
+     * @throws UnsupportedOperationException if field is not writable
+     */
+    default void set(T target, int index, Object value) {
+        throw new UnsupportedOperationException("Field is not writable: " + name(index));
+    }
+}
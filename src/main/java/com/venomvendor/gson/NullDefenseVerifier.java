@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks whether JSON would survive {@link NullDefenseTypeAdapterFactory}, without binding any object.
+ * <p>
+ * JSON is walked token by token against mandatory fields of the declared type, resolved by the same rules
+ * &amp; options as the factory. Values which are never validated are skipped, hence checking is much cheaper
+ * than {@code fromJson} followed by a {@code null} check. Fields are bound as by Gson's reflective adapter,
+ * honouring its exclusions &amp; naming, types read by other adapters are skipped unless they hold something to
+ * validate, in which case they are rejected up front. Mandatory fields missing from JSON are violations,
+ * irrespective of values assigned while constructing an object.
+ * <pre>
+ * NullDefenseVerifier verifier = NullDefenseVerifier.of(factory, gson, TypeToken.get(Parent.class));
+ * NullDefenseVerifier.Verdict verdict = verifier.verify(reader);
+ * if (!verdict.isValid()) {
+ *     log.warn("Rejected at {}", verdict.violations());
+ * }
+ * </pre>
+ * Instances are immutable &amp; safe for concurrent use.
+ */
+public final class NullDefenseVerifier {
+
+    /* Returned by walk, for values which are read as null */
+    private static final int DROPPED = -1;
+
+    /* Gson, which reads the JSON */
+    private final Gson gson;
+    /* Schema of declared type */
+    private final SchemaNode root;
+    /* When true, empty mandatory collections invalidate an object */
+    private final boolean discardEmpty;
+
+    private NullDefenseVerifier(Gson gson, SchemaNode root, boolean discardEmpty) {
+        this.gson = gson;
+        this.root = root;
+        this.discardEmpty = discardEmpty;
+    }
+
+    /**
+     * @param factory factory registered with Gson, whose rules are verified
+     * @param gson    Gson reading the JSON, for binding of fields
+     * @param type    declared type of JSON
+     * @return verifier for given type
+     * @throws IllegalArgumentException if a type having mandatory fields or rules is read by a custom adapter,
+     *                                  or any type reached has fields checked by {@link NullDefenseRule}s
+     */
+    public static NullDefenseVerifier of(NullDefenseTypeAdapterFactory factory, Gson gson, TypeToken<?> type) {
+        DefenseConfig config = factory.config();
+        SchemaNode root = SchemaNode.of(type.getType(), config.plans, gson, factory);
+        return new NullDefenseVerifier(gson, root, config.discardEmpty);
+    }
+
+    /**
+     * Walks a single JSON value, leaving reader positioned after it.
+     *
+     * @param reader reader positioned at a JSON value
+     * @return verdict along with paths of every violation
+     * @throws JsonIOException     if there was a problem reading from reader
+     * @throws JsonSyntaxException if JSON is malformed or cannot be bound to declared type
+     */
+    public Verdict verify(JsonReader reader) {
+        Walk walk = new Walk(reader, discardEmpty);
+        try {
+            boolean valid = walk.value(root) != DROPPED;
+            if (!valid && walk.violations == null) {
+                walk.violation(reader.getPreviousPath());
+            }
+            return new Verdict(valid, walk.violations);
+        } catch (IOException | IllegalStateException e) {
+            throw toJsonException(e);
+        }
+    }
+
+    /**
+     * Truncated JSON is malformed, as reported by Gson.
+     *
+     * @param e failure while reading
+     * @return same exception, as thrown by Gson
+     */
+    static RuntimeException toJsonException(Exception e) {
+        if (e instanceof MalformedJsonException || e instanceof EOFException
+                || e instanceof IllegalStateException) {
+            return new JsonSyntaxException(e);
+        }
+        return new JsonIOException(e);
+    }
+
+    /**
+     * Same as {@link #verify(JsonReader)}, with reader configured by Gson.
+     *
+     * @param reader reader holding JSON
+     * @return verdict along with paths of every violation
+     */
+    public Verdict verify(Reader reader) {
+        return verify(gson.newJsonReader(reader));
+    }
+
+    /**
+     * Outcome of verifying JSON.
+     */
+    public static final class Verdict {
+        /* When true, top level value is retained */
+        private final boolean valid;
+        /* Paths of mandatory fields, which were null, missing or empty */
+        private final List<String> violations;
+
+        Verdict(boolean valid, List<String> violations) {
+            this.valid = valid;
+            this.violations = violations == null
+                    ? Collections.emptyList()
+                    : Collections.unmodifiableList(violations);
+        }
+
+        /**
+         * @return {@code true} if {@code fromJson} would not return {@code null}
+         */
+        public boolean isValid() {
+            return valid;
+        }
+
+        /**
+         * Paths are as reported by {@link JsonReader#getPath()}, e.g. {@code $.children[1].name}.
+         * Violations of nested objects are reported even when only the nested object is discarded, hence a
+         * valid verdict may have violations as well.
+         *
+         * @return paths of mandatory fields which were null, missing or empty, in order of reading
+         */
+        public List<String> violations() {
+            return violations;
+        }
+
+        @Override
+        public String toString() {
+            return "Verdict{valid=" + valid + ", violations=" + violations + '}';
+        }
+    }
+
+    /**
+     * State of a single walk over JSON.
+     */
+    private static final class Walk {
+        /* Source of JSON */
+        private final JsonReader reader;
+        /* When true, empty mandatory collections invalidate an object */
+        private final boolean discardEmpty;
+        /* Mandatory fields read so far, for every object being read, innermost last */
+        private boolean[] present = new boolean[32];
+        private int top;
+        /* Paths of violations, created on first violation */
+        List<String> violations;
+
+        Walk(JsonReader reader, boolean discardEmpty) {
+            this.reader = reader;
+            this.discardEmpty = discardEmpty;
+        }
+
+        void violation(String path) {
+            if (violations == null) {
+                violations = new ArrayList<>();
+            }
+            violations.add(path);
+        }
+
+        /**
+         * @param node schema of value
+         * @return {@link #DROPPED} if value would be {@code null}, else number of retained elements of
+         * collections &amp; maps, {@code 1} for all other values
+         */
+        int value(SchemaNode node) throws IOException {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return DROPPED;
+            }
+            switch (node.kind) {
+                case OBJECT:
+                    return object(node);
+                case ARRAY:
+                    return array(node.element);
+                case MAP:
+                    return map(node.element);
+                case ANY:
+                    return any();
+                case EXCLUDED:
+                    reader.skipValue();
+                    return DROPPED;
+                default:
+                    reader.skipValue();
+                    return 1;
+            }
+        }
+
+        private int object(SchemaNode node) throws IOException {
+            int slots = node.slots();
+            int base = top;
+            if (base + slots > present.length) {
+                present = Arrays.copyOf(present, Math.max(present.length * 2, base + slots));
+            }
+            Arrays.fill(present, base, base + slots, false);
+            top = base + slots;
+
+            boolean rejected = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                SchemaNode.Member member = node.member(reader.nextName());
+                if (member == null || rejected || (member.slot < 0 && !member.node.validated)) {
+                    // Not bound, rest of a rejected object or never has a violation
+                    reader.skipValue();
+                    continue;
+                }
+
+                int retained = value(member.node);
+                if (member.slot < 0) {
+                    continue;
+                }
+                if (retained == DROPPED || (retained == 0 && member.container && discardEmpty)) {
+                    violation(reader.getPreviousPath());
+                    rejected = true;
+                } else {
+                    present[base + member.slot] = true;
+                }
+            }
+            reader.endObject();
+
+            if (!rejected) {
+                for (int slot = 0; slot < slots; slot++) {
+                    if (!present[base + slot]) {
+                        violation(reader.getPreviousPath() + '.' + node.mandatoryNames[slot]);
+                        rejected = true;
+                    }
+                }
+            }
+            top = base;
+            return rejected ? DROPPED : 1;
+        }
+
+        private int array(SchemaNode element) throws IOException {
+            int retained = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (value(element) != DROPPED) {
+                    retained++;
+                }
+            }
+            reader.endArray();
+            return retained;
+        }
+
+        private int map(SchemaNode element) throws IOException {
+            int retained = 0;
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                // Complex keys, each entry is an array of key & value
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    reader.beginArray();
+                    boolean hasKey = reader.peek() != JsonToken.NULL;
+                    reader.skipValue();
+                    if (value(element) != DROPPED && hasKey) {
+                        retained++;
+                    }
+                    reader.endArray();
+                }
+                reader.endArray();
+                return retained;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                if (value(element) != DROPPED) {
+                    retained++;
+                }
+            }
+            reader.endObject();
+            return retained;
+        }
+
+        /**
+         * Object is bound to a list or a map, whose {@code null} elements are removed when mandatory.
+         */
+        private int any() throws IOException {
+            JsonToken token = reader.peek();
+            if (token != JsonToken.BEGIN_ARRAY && token != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                return 1;
+            }
+
+            int retained = 0;
+            boolean isArray = token == JsonToken.BEGIN_ARRAY;
+            if (isArray) {
+                reader.beginArray();
+            } else {
+                reader.beginObject();
+            }
+            while (reader.hasNext()) {
+                if (!isArray) {
+                    reader.nextName();
+                }
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                } else {
+                    reader.skipValue();
+                    retained++;
+                }
+            }
+            if (isArray) {
+                reader.endArray();
+            } else {
+                reader.endObject();
+            }
+            return retained;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds one {@link ValidationPlan} per runtime class, computed on first use.
+ * <p>
+ * Plans are stored in a {@link ClassValue}, hence they never keep a class or its loader alive &amp; reads
+ * are lock free once a plan is known. Classes are tracked only through weak references, in order of resolving,
+ * the oldest plan is evicted once more than the maximum are held. A plan may be resolved more than once by racing
+ * threads, only the one published by {@link ClassValue} is tracked. Safe for concurrent use.
+ * <p>
+ * A lookup of a known plan writes nothing shared &amp; reads no volatile, lookups are counted only when asked for,
+ * i.e. while diagnostics are enabled.
+ */
+final class PlanCache {
+
+    /* Annotation by which variables are marked mandatory */
+    private final Class<? extends Annotation> annotatedType;
+    /* When true, plans also hold collection fields which are not mandatory */
+    private final boolean compactAll;
+    /* When true, plans check mandatory fields in order of observed rejections */
+    private final boolean adaptive;
+    /* Rules by annotation marking fields they check */
+    private final Map<Class<? extends Annotation>, NullDefenseRule<?>> rules;
+    /* Maximum number of plans held */
+    private final int maxSize;
+    /* When true, every lookup is counted, for hits to be known */
+    private final boolean countLookups;
+    /* Resolved plans */
+    private final ClassValue<Entry> plans = new ClassValue<Entry>() {
+        @Override
+        protected Entry computeValue(Class<?> clz) {
+            return new Entry(resolve(clz));
+        }
+    };
+
+    /* Classes having a plan, oldest first */
+    private final Queue<Reference<Class<?>>> order = new ConcurrentLinkedQueue<>();
+    /* Classes which were unloaded, while having a plan */
+    private final ReferenceQueue<Class<?>> unloaded = new ReferenceQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /* Statistics */
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    PlanCache(Class<? extends Annotation> annotatedType, boolean compactAll, boolean adaptive, int maxSize,
+              boolean countLookups) {
+        this(annotatedType, compactAll, adaptive, Collections.emptyMap(), maxSize, countLookups);
+    }
+
+    PlanCache(Class<? extends Annotation> annotatedType, boolean compactAll, boolean adaptive,
+              Map<Class<? extends Annotation>, NullDefenseRule<?>> rules, int maxSize, boolean countLookups) {
+        this.annotatedType = annotatedType;
+        this.compactAll = compactAll;
+        this.adaptive = adaptive;
+        this.rules = rules;
+        this.maxSize = maxSize;
+        this.countLookups = countLookups;
+    }
+
+    /**
+     * @param clz runtime class of object being validated
+     * @return cached plan, resolved on first call for the class
+     */
+    ValidationPlan get(Class<?> clz) {
+        if (countLookups) {
+            lookups.increment();
+        }
+        Entry entry = plans.get(clz);
+        if (!entry.tracked) {
+            // Plain read, a stale one only takes the lock of entry
+            track(clz, entry);
+        }
+        return entry.plan;
+    }
+
+    /**
+     * Resolves plan of a class, which is not in cache. Nothing is tracked here, as racing threads may
+     * resolve the same class &amp; only one plan is published.
+     */
+    private ValidationPlan resolve(Class<?> clz) {
+        ValidationPlan plan = ValidationPlan.of(clz, annotatedType, compactAll, rules);
+        if (adaptive) {
+            plan = plan.adaptive();
+        }
+        return plan;
+    }
+
+    /**
+     * Tracks a class whose plan was published, once, evicting oldest plan beyond maximum.
+     */
+    private void track(Class<?> clz, Entry entry) {
+        synchronized (entry) {
+            if (entry.tracked) {
+                return;
+            }
+            entry.tracked = true;
+        }
+        misses.increment();
+        expungeUnloaded();
+
+        Reference<Class<?>> tracked = new WeakReference<>(clz, unloaded);
+        order.add(tracked);
+        if (size.incrementAndGet() > maxSize) {
+            evictOldest(tracked);
+        }
+    }
+
+    /**
+     * @param tracked reference just tracked, never evicted
+     */
+    private void evictOldest(Reference<Class<?>> tracked) {
+        Reference<Class<?>> oldest = order.poll();
+        while (oldest == tracked) {
+            // Older plans were evicted by racing threads, next one is evicted instead
+            order.add(oldest);
+            if (order.peek() == tracked) {
+                return;
+            }
+            oldest = order.poll();
+        }
+        if (oldest == null) {
+            return;
+        }
+        Class<?> clz = oldest.get();
+        if (clz != null) {
+            oldest.clear();
+            plans.remove(clz);
+        }
+        size.decrementAndGet();
+        evictions.increment();
+    }
+
+    /**
+     * Forgets classes which were unloaded, their plans are already gone along with the class.
+     */
+    private void expungeUnloaded() {
+        for (Reference<?> reference = unloaded.poll(); reference != null; reference = unloaded.poll()) {
+            if (order.remove(reference)) {
+                size.decrementAndGet();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * @return snapshot of statistics
+     */
+    NullDefenseCacheStats stats() {
+        long missed = misses.sum();
+        long hits = countLookups ? Math.max(0, lookups.sum() - missed) : -1;
+        return new NullDefenseCacheStats(hits, missed, evictions.sum(), size.get());
+    }
+
+    /**
+     * Plan published for a class, tracked once.
+     */
+    private static final class Entry {
+        /* Resolved plan */
+        final ValidationPlan plan;
+        /* True once class is tracked, set only while holding lock of entry */
+        boolean tracked;
+
+        Entry(ValidationPlan plan) {
+            this.plan = plan;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.venomvendor.gson.ValidationPlan.MandatoryField;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Checks single objects against their {@link ValidationPlan}, shared by adapters reading &amp; writing JSON
+ * &amp; by {@link NullDefenseGraphValidator}. While reading, nested objects are expected to be validated
+ * already, as Gson reads them first. Immutable &amp; safe for concurrent use.
+ */
+final class PlanChecker {
+
+    /* Options of factory */
+    private final DefenseConfig config;
+    /* Mandatory fields per class */
+    private final PlanCache plans;
+    /* When false, no event is reported */
+    private final boolean instrumented;
+
+    PlanChecker(DefenseConfig config) {
+        this.config = config;
+        this.plans = config.plans;
+        this.instrumented = config.instrumented;
+    }
+
+    /**
+     * Process mandatory fields of data, as resolved in its {@link ValidationPlan} &amp;
+     * compacts its other collections, maps &amp; arrays, when enabled. Outcome is recorded by the plan.
+     *
+     * @param result data to process
+     * @param plan   plan of data
+     * @return field which was {@code null}, empty or failed its rule, {@code null} if data is valid
+     */
+    MandatoryField reject(Object result, ValidationPlan plan) {
+        for (MandatoryField mandatory : plan.checkOrder()) {
+            if (containsInvalidData(result, mandatory)) {
+                plan.checked(mandatory);
+                return mandatory;
+            }
+        }
+
+        // Containers which are not mandatory, are only compacted.
+        for (MandatoryField optional : plan.containers()) {
+            Object value = optional.accessor.get(result);
+            if (value != null) {
+                compact(result, optional, value);
+            }
+        }
+
+        // Fields having rules which are not mandatory, are checked once compacted.
+        for (MandatoryField ruled : plan.ruled()) {
+            Object value = ruled.accessor.get(result);
+            if (value != null && !ruled.rule.test(value)) {
+                plan.checked(ruled);
+                return ruled;
+            }
+        }
+
+        plan.checked(null);
+        return null;
+    }
+
+    /**
+     * Checks data against its {@link ValidationPlan}, without modifying it. Objects held by mandatory fields
+     * &amp; elements of mandatory containers are checked as well, as they would be rejected first while reading.
+     * An object referring back to one being checked, regards it as valid.
+     *
+     * @param value data to check
+     * @return field rejecting data, {@code null} if data would be retained while reading
+     */
+    MandatoryField rejectedBy(Object value) {
+        return rejectedBy(value, new Nested());
+    }
+
+    /**
+     * Same as {@link #rejectedBy(Object)}, with validity of nested objects known already.
+     *
+     * @param value    data to check
+     * @param rejected tells whether a nested object is invalid
+     * @return {@code true} if data would be retained while reading
+     */
+    boolean isValid(Object value, Predicate<Object> rejected) {
+        return rejectedBy(value, rejected) == null;
+    }
+
+    /**
+     * @param value    data to check
+     * @param rejected tells whether a nested object is invalid
+     * @return field rejecting data, {@code null} if data would be retained while reading
+     */
+    private MandatoryField rejectedBy(Object value, Predicate<Object> rejected) {
+        ValidationPlan plan = plans.get(value.getClass());
+        for (MandatoryField mandatory : plan.fields()) {
+            Object field = mandatory.accessor.get(value);
+            if (field == null || rejected.test(field)) {
+                return mandatory;
+            }
+            if (mandatory.container && config.discardEmpty && !hasValidElement(field, rejected)) {
+                return mandatory;
+            }
+            if (mandatory.rule != null && !mandatory.rule.test(field)) {
+                return mandatory;
+            }
+        }
+        for (MandatoryField ruled : plan.ruled()) {
+            Object field = ruled.accessor.get(value);
+            if (field != null && !ruled.rule.test(field)) {
+                return ruled;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param value    data held by a mandatory field
+     * @param rejected tells whether a nested object is invalid
+     * @return {@code true} if data is not a container or holds at least one valid element
+     */
+    private boolean hasValidElement(Object value, Predicate<Object> rejected) {
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                if (element != null && !rejected.test(element)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null && !rejected.test(entry.getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                if (element != null && !rejected.test(element)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return !value.getClass().isArray() || Array.getLength(value) > 0;
+    }
+
+    /**
+     * Check if data contains null or empty objects only on annotated fields, or fails their rules
+     *
+     * @param result    data to process
+     * @param mandatory mandatory field in current object
+     * @return {@code true} if data is invalid
+     */
+    private boolean containsInvalidData(Object result, MandatoryField mandatory) {
+        Object value = mandatory.accessor.get(result);
+
+        // Check for emptiness, then rules
+        return isEmpty(result, mandatory, value)
+                || (mandatory.rule != null && !mandatory.rule.test(value));
+    }
+
+    /**
+     * Checks if data is either null or empty
+     *
+     * @param result    data holding value
+     * @param mandatory mandatory field holding value
+     * @param value     data to process
+     * @return {@code true} if data is invalid
+     */
+    private boolean isEmpty(Object result, MandatoryField mandatory, Object value) {
+        return value == null || (mandatory.container && isEmptyContainer(result, mandatory, value));
+    }
+
+    /**
+     * Checks if data is a collection, map or an array &amp; removes all null items from it,
+     * before checking for total number of items in it.
+     *
+     * @param result    data holding value
+     * @param mandatory mandatory field holding value
+     * @param value     data to process
+     * @return {@code true} if data is invalid
+     */
+    private boolean isEmptyContainer(Object result, MandatoryField mandatory, Object value) {
+        int size = compact(result, mandatory, value);
+        // Remove object if container is empty.
+        return config.discardEmpty && size == 0;
+    }
+
+    /**
+     * Removes null items from a collection or a map in place. Arrays, along with collections &amp; maps which
+     * cannot be modified, are replaced by compacted copies when field is writable, else are left as is.
+     *
+     * @param result data holding value
+     * @param field  field holding value
+     * @param value  data to process, non-null
+     * @return number of non-null items left, {@code -1} if value is not a container
+     */
+    private int compact(Object result, MandatoryField field, Object value) {
+        int removed;
+        int size;
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            try {
+                removed = NullCompaction.removeNulls(collection);
+                size = collection.size();
+            } catch (UnsupportedOperationException e) {
+                Collection<Object> copy = NullCompaction.withoutNulls(collection);
+                removed = replace(result, field, copy) ? collection.size() - copy.size() : 0;
+                size = copy.size();
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            try {
+                removed = NullCompaction.removeNulls(map);
+                size = map.size();
+            } catch (UnsupportedOperationException e) {
+                Map<Object, Object> copy = NullCompaction.withoutNulls(map);
+                removed = replace(result, field, copy) ? map.size() - copy.size() : 0;
+                size = copy.size();
+            }
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            int nulls = NullCompaction.countNulls(array);
+            removed = 0;
+            if (nulls > 0 && field.accessor.isWritable()) {
+                field.accessor.set(result, NullCompaction.withoutNulls(array, nulls));
+                removed = nulls;
+            }
+            size = array.length - nulls;
+        } else if (value.getClass().isArray()) {
+            // Primitives are never null
+            return Array.getLength(value);
+        } else {
+            return -1;
+        }
+
+        if (instrumented && removed > 0) {
+            config.listener.onNullsRemoved(result.getClass(), field.name, removed);
+        }
+        return size;
+    }
+
+    /**
+     * Replaces a container which cannot be modified by its compacted copy.
+     *
+     * @param result data holding value
+     * @param field  field holding value
+     * @param copy   compacted copy of value
+     * @return {@code true} if field now holds the copy
+     */
+    private static boolean replace(Object result, MandatoryField field, Object copy) {
+        if (!field.accessor.isWritable() || !field.type.isInstance(copy)) {
+            // Left as is, nulls included
+            return false;
+        }
+        field.accessor.set(result, copy);
+        return true;
+    }
+
+    /**
+     * Checks nested objects against their plans, as they are reached. Used by a single check.
+     */
+    private final class Nested implements Predicate<Object> {
+        /* Objects being checked, created once an object with a plan is reached */
+        private Set<Object> checking;
+
+        @Override
+        public boolean test(Object value) {
+            Class<?> clz = value.getClass();
+            if (!NullDefenseGraphValidator.isUserClass(clz) || plans.get(clz).isEmpty()) {
+                // Never rejected, e.g. strings
+                return false;
+            }
+            if (checking == null) {
+                checking = Collections.newSetFromMap(new IdentityHashMap<>());
+            }
+            if (!checking.add(value)) {
+                // Refers back to an object being checked
+                return false;
+            }
+            try {
+                return rejectedBy(value, this) != null;
+            } finally {
+                checking.remove(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.internal.Excluder;
+import com.google.gson.internal.bind.ArrayTypeAdapter;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shape of JSON bound to a declared type, walked by {@link NullDefenseVerifier} instead of binding objects.
+ * <p>
+ * Objects know the serialized names of all fields bound by Gson &amp; which of them are mandatory, as per
+ * the {@link ValidationPlan} of their class. Fields are bound as by Gson's reflective adapter, honouring its
+ * {@link Excluder} &amp; naming strategy. Types read by any other adapter are skipped as a whole, unless they
+ * hold something to validate, which JSON cannot be checked against. Nodes are resolved once per type,
+ * recursive types refer to the same node.
+ */
+final class SchemaNode {
+
+    /**
+     * JSON expected for a type.
+     */
+    enum Kind {
+        /* Anything which is never validated, skipped as a whole */
+        VALUE,
+        /* Object bound reflectively, may have mandatory fields */
+        OBJECT,
+        /* Collection or array */
+        ARRAY,
+        /* Map, values are validated */
+        MAP,
+        /* Declared as Object, bound to whatever JSON holds */
+        ANY,
+        /* Excluded by Gson, always read as null */
+        EXCLUDED
+    }
+
+    /* Node of types, which are never validated */
+    private static final SchemaNode VALUE = new SchemaNode(Kind.VALUE);
+    /* Node of Object */
+    private static final SchemaNode ANY = new SchemaNode(Kind.ANY);
+    /* Node of classes excluded by Gson */
+    private static final SchemaNode EXCLUDED = new SchemaNode(Kind.EXCLUDED);
+
+    /* Adapters of Gson binding collections & maps, which are not public */
+    static final String COLLECTION_ADAPTER =
+            "com.google.gson.internal.bind.CollectionTypeAdapterFactory$Adapter";
+    private static final String MAP_ADAPTER = "com.google.gson.internal.bind.MapTypeAdapterFactory$Adapter";
+
+    /* JSON expected for the type */
+    final Kind kind;
+    /* Elements of arrays or values of maps */
+    SchemaNode element;
+    /* Fields of objects, by serialized name including alternates */
+    Map<String, Member> members;
+    /* Serialized name of each mandatory field of objects, by slot */
+    String[] mandatoryNames;
+    /* When false, JSON of the type never has a violation & is skipped unless mandatory */
+    boolean validated;
+
+    private SchemaNode(Kind kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * Resolves schema of given type.
+     *
+     * @param type    declared type of JSON
+     * @param plans   mandatory fields per class
+     * @param gson    Gson reading the JSON
+     * @param factory factory registered with Gson, adapters after it are the ones validated
+     * @return root node, never {@code null}
+     * @throws IllegalArgumentException if a type having something to validate is read by an adapter other than
+     *                                  those of Gson for objects, collections, maps &amp; arrays
+     */
+    static SchemaNode of(Type type, PlanCache plans, Gson gson, TypeAdapterFactory factory) {
+        Resolver resolver = new Resolver(plans, gson, factory);
+        SchemaNode root = resolver.resolve(type);
+        resolver.markValidated();
+        resolver.checkCustom();
+        return root;
+    }
+
+    /**
+     * @param type declared type of a collection
+     * @return type of elements, {@code Object} when unknown
+     */
+    static Type elementType(Type type) {
+        return Resolver.typeArgument(type, Collection.class, 0);
+    }
+
+    /**
+     * @param name serialized name read from JSON
+     * @return field bound to the name, {@code null} if it is not bound
+     */
+    Member member(String name) {
+        return members.get(name);
+    }
+
+    /**
+     * @return number of mandatory fields of objects
+     */
+    int slots() {
+        return mandatoryNames.length;
+    }
+
+    /**
+     * Field of an object, as bound by Gson.
+     */
+    static final class Member {
+        /* Schema of value */
+        final SchemaNode node;
+        /* Index of mandatory field, -1 when not mandatory */
+        final int slot;
+        /* When true, an empty value is invalid, if empty values are discarded */
+        final boolean container;
+
+        Member(SchemaNode node, int slot, boolean container) {
+            this.node = node;
+            this.slot = slot;
+            this.container = container;
+        }
+    }
+
+    /**
+     * Resolves nodes from declared types, along with type arguments of generic classes.
+     */
+    private static final class Resolver {
+        /* Mandatory fields per class */
+        private final PlanCache plans;
+        /* Gson, binding fields */
+        private final Gson gson;
+        /* Factory registered with Gson */
+        private final TypeAdapterFactory factory;
+        /* Fields & classes Gson never binds */
+        private final Excluder excluder;
+        /* Nodes resolved so far, including those being resolved */
+        private final Map<Type, SchemaNode> resolved = new HashMap<>();
+        /* Nodes of types read by custom adapters, resolved only to know whether they hold anything validated */
+        private final Map<Type, SchemaNode> custom = new LinkedHashMap<>();
+
+        // Gson exposes its exclusions only through its Excluder, which has no public replacement
+        @SuppressWarnings("deprecation")
+        Resolver(PlanCache plans, Gson gson, TypeAdapterFactory factory) {
+            this.plans = plans;
+            this.gson = gson;
+            this.factory = factory;
+            this.excluder = gson.excluder();
+        }
+
+        SchemaNode resolve(Type type) {
+            SchemaNode node = resolved.get(type);
+            if (node != null) {
+                return node;
+            }
+
+            Class<?> rawType = TypeToken.get(type).getRawType();
+            if (rawType == Object.class) {
+                return ANY;
+            }
+            if (excluder.excludeClass(rawType, false)) {
+                return EXCLUDED;
+            }
+            Kind kind = kindOf(rawType);
+            if (kind == Kind.VALUE) {
+                return custom(type);
+            }
+            if (!isBuiltIn(gson.getDelegateAdapter(factory, TypeToken.get(type)), rawType, kind)) {
+                resolved.put(type, VALUE);
+                return custom(type);
+            }
+
+            node = new SchemaNode(kind);
+            resolved.put(type, node);
+            resolveShape(node, type, rawType);
+            return node;
+        }
+
+        /**
+         * Resolves type read by an adapter, whose JSON is unknown.
+         *
+         * @param type declared type
+         * @return node skipping whole value
+         * @throws IllegalArgumentException if type has mandatory fields or rules
+         */
+        private SchemaNode custom(Type type) {
+            Class<?> rawType = TypeToken.get(type).getRawType();
+            if (isUserType(rawType) && !rawType.isEnum() && !plans.get(rawType).isEmpty()) {
+                throw new IllegalArgumentException("Cannot verify " + type + ", it is read by a custom adapter");
+            }
+            Kind kind = kindOf(rawType);
+            if (kind != Kind.VALUE && !custom.containsKey(type)) {
+                SchemaNode node = new SchemaNode(kind);
+                custom.put(type, node);
+                resolveShape(node, type, rawType);
+            }
+            return VALUE;
+        }
+
+        /**
+         * @throws IllegalArgumentException if a type read by a custom adapter holds anything validated
+         */
+        void checkCustom() {
+            for (Map.Entry<Type, SchemaNode> entry : custom.entrySet()) {
+                if (entry.getValue().validated) {
+                    throw new IllegalArgumentException("Cannot verify " + entry.getKey()
+                            + ", it is read by a custom adapter");
+                }
+            }
+        }
+
+        /**
+         * Resolves elements, values or fields of a node.
+         */
+        private void resolveShape(SchemaNode node, Type type, Class<?> rawType) {
+            if (rawType.isArray()) {
+                node.element = resolve(componentType(type));
+            } else if (node.kind == Kind.ARRAY) {
+                node.element = resolve(typeArgument(type, Collection.class, 0));
+            } else if (node.kind == Kind.MAP) {
+                node.element = resolve(typeArgument(type, Map.class, 1));
+            } else {
+                resolveMembers(node, type, rawType);
+            }
+        }
+
+        /**
+         * Marks nodes having mandatory fields, directly or through any nested node.
+         * Recursive types refer to each other, hence marking is repeated until nothing changes.
+         */
+        void markValidated() {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (SchemaNode node : resolved.values()) {
+                    changed |= mark(node);
+                }
+                for (SchemaNode node : custom.values()) {
+                    changed |= mark(node);
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if node is newly marked
+         */
+        private static boolean mark(SchemaNode node) {
+            if (node.validated || !isValidated(node)) {
+                return false;
+            }
+            node.validated = true;
+            return true;
+        }
+
+        private static boolean isValidated(SchemaNode node) {
+            if (node.kind != Kind.OBJECT) {
+                return node.element != null && node.element.validated;
+            }
+            if (node.slots() > 0) {
+                return true;
+            }
+            for (Member member : node.members.values()) {
+                if (member.node.validated) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Rules check bound values, which are never built from JSON here.
+         *
+         * @param plan plan of a type
+         * @return {@code true} if any field of type is checked by a rule
+         */
+        private static boolean hasRules(ValidationPlan plan) {
+            if (plan.ruled().length > 0) {
+                return true;
+            }
+            for (ValidationPlan.MandatoryField field : plan.fields()) {
+                if (field.rule != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Resolves all fields bound by Gson, including those of superclasses. Fields excluded by Gson are never
+         * bound, hence are always missing when mandatory.
+         *
+         * @throws IllegalArgumentException if a mandatory collection, map or array is read by a custom adapter,
+         *                                  or type has fields checked by rules
+         */
+        private void resolveMembers(SchemaNode node, Type type, Class<?> rawType) {
+            Map<String, Integer> slots = new HashMap<>();
+            ValidationPlan plan = plans.get(rawType);
+            if (hasRules(plan)) {
+                throw new IllegalArgumentException("Cannot verify " + type + ", it has fields checked by rules");
+            }
+            ValidationPlan.MandatoryField[] mandatory = plan.fields();
+            node.mandatoryNames = new String[mandatory.length];
+            for (int slot = 0; slot < mandatory.length; slot++) {
+                slots.put(mandatory[slot].name, slot);
+            }
+
+            node.members = new HashMap<>();
+            for (Class<?> current = rawType; current != null && current != Object.class;
+                 current = current.getSuperclass()) {
+                Type declaring = supertype(type, current);
+                for (Field field : current.getDeclaredFields()) {
+                    Integer slot = slots.remove(field.getName());
+                    if (excluder.excludeClass(field.getType(), false) || excluder.excludeField(field, false)) {
+                        // Never bound, hence always missing when mandatory
+                        if (slot != null) {
+                            node.mandatoryNames[slot] = field.getName();
+                        }
+                        continue;
+                    }
+
+                    boolean container = slot != null && mandatory[slot].container;
+                    Type fieldType = substitute(declaring, field.getGenericType());
+                    SchemaNode value;
+                    if (field.isAnnotationPresent(JsonAdapter.class)) {
+                        if (container) {
+                            throw new IllegalArgumentException("Cannot verify " + field.getName()
+                                    + ", it is read by a custom adapter");
+                        }
+                        value = custom(fieldType);
+                    } else {
+                        value = resolve(fieldType);
+                    }
+                    Member member = new Member(value, slot == null ? -1 : slot, container);
+
+                    SerializedName serializedName = field.getAnnotation(SerializedName.class);
+                    String name = serializedName == null
+                            ? gson.fieldNamingStrategy().translateName(field)
+                            : serializedName.value();
+                    node.members.put(name, member);
+                    if (serializedName != null) {
+                        for (String alternate : serializedName.alternate()) {
+                            node.members.put(alternate, member);
+                        }
+                    }
+                    if (slot != null) {
+                        node.mandatoryNames[slot] = name;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param rawType class of declared type
+         * @return JSON expected, when read by adapters of Gson
+         */
+        private static Kind kindOf(Class<?> rawType) {
+            if (rawType.isArray() || Collection.class.isAssignableFrom(rawType)) {
+                return Kind.ARRAY;
+            }
+            if (Map.class.isAssignableFrom(rawType)) {
+                return Kind.MAP;
+            }
+            if (isUserType(rawType)
+                    && !rawType.isEnum()
+                    && !rawType.isInterface()
+                    && !Modifier.isAbstract(rawType.getModifiers())) {
+                return Kind.OBJECT;
+            }
+            return Kind.VALUE;
+        }
+
+        /**
+         * @param rawType class of declared type
+         * @return {@code true} if class is neither of JDK nor opened for reflection
+         */
+        private static boolean isUserType(Class<?> rawType) {
+            return rawType.getClassLoader() != null && !rawType.getName().startsWith("java.");
+        }
+
+        /**
+         * @param adapter adapter by which Gson reads declared type
+         * @param rawType class of declared type
+         * @param kind    JSON expected for declared type
+         * @return {@code true} if adapter reads JSON of given kind, as modelled by schema
+         */
+        private static boolean isBuiltIn(TypeAdapter<?> adapter, Class<?> rawType, Kind kind) {
+            String name = adapter.getClass().getName();
+            switch (kind) {
+                case OBJECT:
+                    return adapter instanceof ReflectiveTypeAdapterFactory.Adapter;
+                case ARRAY:
+                    return rawType.isArray() ? adapter instanceof ArrayTypeAdapter : name.equals(COLLECTION_ADAPTER);
+                default:
+                    return name.equals(MAP_ADAPTER);
+            }
+        }
+
+        private static Type componentType(Type type) {
+            if (type instanceof GenericArrayType) {
+                return ((GenericArrayType) type).getGenericComponentType();
+            }
+            return ((Class<?>) type).getComponentType();
+        }
+
+        /**
+         * @param type      declared type
+         * @param supertype generic supertype of declared type
+         * @param index     index of type parameter of supertype
+         * @return type argument as seen from declared type, {@code Object} when unknown
+         */
+        private static Type typeArgument(Type type, Class<?> supertype, int index) {
+            Type resolved = supertype(type, supertype);
+            if (resolved instanceof ParameterizedType) {
+                return ((ParameterizedType) resolved).getActualTypeArguments()[index];
+            }
+            return Object.class;
+        }
+
+        /**
+         * @param type   declared type
+         * @param target class or interface in hierarchy of declared type
+         * @return target, parameterized as seen from declared type
+         */
+        private static Type supertype(Type type, Class<?> target) {
+            Class<?> rawType = TypeToken.get(type).getRawType();
+            if (rawType == target) {
+                return type;
+            }
+            for (Type generic : rawType.getGenericInterfaces()) {
+                if (target.isAssignableFrom(TypeToken.get(generic).getRawType())) {
+                    return supertype(substitute(type, generic), target);
+                }
+            }
+            Type generic = rawType.getGenericSuperclass();
+            if (generic != null && target.isAssignableFrom(TypeToken.get(generic).getRawType())) {
+                return supertype(substitute(type, generic), target);
+            }
+            return target;
+        }
+
+        /**
+         * @param context declared type, holding type arguments
+         * @param type    type using type parameters of context
+         * @return type with type parameters replaced by arguments, erased when unknown
+         */
+        private static Type substitute(Type context, Type type) {
+            if (type instanceof TypeVariable) {
+                TypeVariable<?>[] parameters = TypeToken.get(context).getRawType().getTypeParameters();
+                if (context instanceof ParameterizedType) {
+                    for (int index = 0; index < parameters.length; index++) {
+                        if (parameters[index].equals(type)) {
+                            return ((ParameterizedType) context).getActualTypeArguments()[index];
+                        }
+                    }
+                }
+                return TypeToken.get(type).getRawType();
+            }
+            if (type instanceof ParameterizedType) {
+                ParameterizedType parameterized = (ParameterizedType) type;
+                Type[] arguments = parameterized.getActualTypeArguments().clone();
+                for (int index = 0; index < arguments.length; index++) {
+                    arguments[index] = substitute(context, arguments[index]);
+                }
+                return TypeToken.getParameterized(parameterized.getRawType(), arguments).getType();
+            }
+            if (type instanceof GenericArrayType) {
+                Type component = substitute(context, ((GenericArrayType) type).getGenericComponentType());
+                return TypeToken.getArray(component).getType();
+            }
+            if (type instanceof WildcardType) {
+                return substitute(context, ((WildcardType) type).getUpperBounds()[0]);
+            }
+            return type;
+        }
+    }
+}
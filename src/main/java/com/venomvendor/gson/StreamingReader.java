@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Reader which rejects an object as soon as one of its mandatory names is followed by {@code null}.
+ * <p>
+ * Every object being read by a {@code DefensiveAdapter} is a frame, holding serialized names of
+ * its mandatory fields, mapped to their field names. Once a frame is rejected, {@link #hasNext()} skips remaining
+ * names &amp; values of that object &amp; reports its end, so Gson never builds them.
+ * All other calls are forwarded to the actual reader.
+ * <p>
+ * A single instance is reused per platform thread, see {@link #acquire(JsonReader)}, as every {@link JsonReader}
+ * allocates its own buffer. Reuse pays off only for pooled platform threads, each of which retains one idle
+ * instance, holding no input once released. Virtual threads are rarely reused, hence allocate an instance per
+ * read instead of retaining one per thread. Reads nested under Gson's Map adapter receive the actual reader
+ * &amp; share the instance already wrapping it, on platform threads.
+ */
+final class StreamingReader extends JsonReader {
+
+    /* All reads happen on actual reader */
+    private static final Reader UNREADABLE = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    /* Reader of current platform thread, reused by reads which do not overlap */
+    private static final ThreadLocal<StreamingReader> CURRENT = ThreadLocal.withInitial(StreamingReader::new);
+    /* Thread#isVirtual, null before Java 21 */
+    private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    /* Actual reader, null while released */
+    private JsonReader in;
+    /* Reads sharing this instance */
+    private int users;
+    /* Nesting of current token, relative to when wrapping started */
+    private int depth;
+
+    /* Frames, innermost last */
+    private int frames;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Map<String, String>[] names = new Map[8];
+    private int[] depths = new int[8];
+    private String[] rejected = new String[8];
+
+    private StreamingReader() {
+        super(UNREADABLE);
+    }
+
+    /**
+     * Wraps actual reader, every call must be followed by {@link #release()}.
+     *
+     * @param in actual reader
+     * @return reader of current platform thread, unless it is wrapping another reader
+     */
+    static StreamingReader acquire(JsonReader in) {
+        StreamingReader reader = isVirtual(Thread.currentThread()) ? new StreamingReader() : CURRENT.get();
+        if (reader.users > 0 && reader.in != in) {
+            // Another reader is being read on this thread, e.g. by a custom adapter
+            reader = new StreamingReader();
+        }
+        if (reader.users++ == 0) {
+            reader.in = in;
+            reader.setStrictness(in.getStrictness());
+        }
+        return reader;
+    }
+
+    /**
+     * @return handle of {@code Thread#isVirtual}, {@code null} if not supported by JVM
+     */
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param thread thread to check
+     * @return {@code true} if thread is virtual
+     */
+    private static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Ends a read started by {@link #acquire(JsonReader)}, actual reader is dropped once no read is left.
+     */
+    void release() {
+        if (--users == 0) {
+            in = null;
+            depth = 0;
+            frames = 0;
+        }
+    }
+
+    /**
+     * @return actual reader
+     */
+    JsonReader unwrap() {
+        return in;
+    }
+
+    /**
+     * Starts frame for an object, which is yet to begin.
+     *
+     * @param mandatoryNames names of mandatory fields by their serialized names
+     */
+    void push(Map<String, String> mandatoryNames) {
+        if (frames == depths.length) {
+            int size = frames * 2;
+            names = Arrays.copyOf(names, size);
+            depths = Arrays.copyOf(depths, size);
+            rejected = Arrays.copyOf(rejected, size);
+        }
+        names[frames] = mandatoryNames;
+        depths[frames] = depth + 1;
+        rejected[frames] = null;
+        frames++;
+    }
+
+    /**
+     * Ends frame started by last {@link #push(Map)}.
+     *
+     * @return name of field read as {@code null} if object was rejected while reading, else {@code null}
+     */
+    String pop() {
+        frames--;
+        names[frames] = null;
+        String rejectedBy = rejected[frames];
+        rejected[frames] = null;
+        return rejectedBy;
+    }
+
+    /**
+     * @return {@code true} if current token belongs to innermost frame
+     */
+    private boolean inFrame() {
+        return frames > 0 && depths[frames - 1] == depth;
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        in.beginArray();
+        depth++;
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        in.endArray();
+        depth--;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        in.beginObject();
+        depth++;
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        in.endObject();
+        depth--;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (inFrame() && rejected[frames - 1] != null) {
+            // Skip rest of rejected object, without building it
+            while (in.hasNext()) {
+                in.nextName();
+                in.skipValue();
+            }
+            return false;
+        }
+        return in.hasNext();
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        return in.peek();
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        String name = in.nextName();
+        if (inFrame()) {
+            String field = names[frames - 1].get(name);
+            if (field != null && in.peek() == JsonToken.NULL) {
+                rejected[frames - 1] = field;
+            }
+        }
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        return in.nextString();
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        return in.nextBoolean();
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        in.nextNull();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        return in.nextDouble();
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        return in.nextLong();
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        return in.nextInt();
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        in.skipValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    @Override
+    public String getPath() {
+        return in.getPath();
+    }
+
+    @Override
+    public String getPreviousPath() {
+        return in.getPreviousPath();
+    }
+
+    @Override
+    public String toString() {
+        return in.toString();
+    }
+}
@@ -0,0 +1,544 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.FieldNamingStrategy;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.internal.Primitives;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Mandatory fields of a single class, resolved once &amp; walked for every object of that class.
+ * <p>
+ * A field is part of the plan when it is marked with the annotation, either directly or
+ * through its declaring class, and is neither {@code Primitive} nor boxed {@code Primitive}.
+ * Fields inherited from superclasses are included, the hierarchy is walked only once per class.
+ * When requested, a plan also holds collection, map &amp; array fields which are not mandatory, these are
+ * only compacted &amp; never reject an object.
+ * <p>
+ * Fields marked with an annotation having a {@link NullDefenseRule} carry its compiled check, fields which
+ * are not mandatory are held apart &amp; are checked only when non-null, primitives included.
+ * <p>
+ * An adaptive plan samples one in {@value #SAMPLED_CHECKS} checks, counts rejections per field among them &amp;
+ * every {@value #REORDER_INTERVAL} samples, reorders its mandatory fields so that those rejecting most often are
+ * checked first.
+ */
+final class ValidationPlan {
+
+    /* Plan without any mandatory field, nothing to validate */
+    static final ValidationPlan EMPTY = new ValidationPlan(new MandatoryField[0], new MandatoryField[0],
+            new MandatoryField[0], null);
+    /* One in these many checks is recorded, when adaptive */
+    static final int SAMPLED_CHECKS = 16;
+    /* Recorded checks between reordering of mandatory fields, when adaptive */
+    static final int REORDER_INTERVAL = 64;
+
+    /* Mandatory fields in declaration order */
+    private final MandatoryField[] fields;
+    /* Collection fields which are not mandatory, in declaration order */
+    private final MandatoryField[] containers;
+    /* Fields having rules which are not mandatory, in declaration order */
+    private final MandatoryField[] ruled;
+    /* Order of checking mandatory fields, null when checked in declaration order */
+    private final AdaptiveOrder adaptive;
+
+    private ValidationPlan(MandatoryField[] fields, MandatoryField[] containers, MandatoryField[] ruled,
+                           AdaptiveOrder adaptive) {
+        this.fields = fields;
+        this.containers = containers;
+        this.ruled = ruled;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Resolves mandatory fields of given class, generated {@link NullDefenseValidator} is
+     * preferred when available.
+     *
+     * @param clz           class to inspect
+     * @param annotatedType annotation by which variables are marked mandatory
+     * @return plan for given class, never {@code null}
+     */
+    static ValidationPlan of(Class<?> clz, Class<? extends Annotation> annotatedType) {
+        return of(clz, annotatedType, false);
+    }
+
+    /**
+     * Same as {@link #of(Class, Class)}, optionally including collection, map &amp; array fields which are not
+     * mandatory. Such fields are always resolved through reflection.
+     *
+     * @param clz           class to inspect
+     * @param annotatedType annotation by which variables are marked mandatory
+     * @param compactAll    when true, plan holds collection, map &amp; array fields which are not mandatory
+     * @return plan for given class, never {@code null}
+     */
+    static ValidationPlan of(Class<?> clz, Class<? extends Annotation> annotatedType, boolean compactAll) {
+        return of(clz, annotatedType, compactAll, Collections.emptyMap());
+    }
+
+    /**
+     * Same as {@link #of(Class, Class, boolean)}, along with checks compiled from given rules. Annotations of
+     * rules are always read through reflection, once per class.
+     *
+     * @param clz           class to inspect
+     * @param annotatedType annotation by which variables are marked mandatory
+     * @param compactAll    when true, plan holds collection, map &amp; array fields which are not mandatory
+     * @param rules         rules by annotation marking fields they check
+     * @return plan for given class, never {@code null}
+     * @throws IllegalArgumentException if a rule does not apply to type of a marked field
+     */
+    static ValidationPlan of(Class<?> clz, Class<? extends Annotation> annotatedType, boolean compactAll,
+                             Map<Class<? extends Annotation>, NullDefenseRule<?>> rules) {
+        NullDefenseValidator<Object> validator = findValidator(clz, annotatedType);
+        if (validator != null) {
+            return of(clz, validator, compactAll ? containers(clz, annotatedType) : EMPTY.containers, rules);
+        }
+        return reflect(clz, annotatedType, compactAll, rules);
+    }
+
+    /**
+     * Resolves mandatory fields through generated validator.
+     *
+     * @param clz        validated class
+     * @param validator  generated validator of class
+     * @param containers collection, map &amp; array fields which are not mandatory
+     * @param rules      rules by annotation marking fields they check
+     * @return plan for validated class
+     */
+    private static ValidationPlan of(Class<?> clz, NullDefenseValidator<Object> validator,
+                                     MandatoryField[] containers,
+                                     Map<Class<? extends Annotation>, NullDefenseRule<?>> rules) {
+        int size = validator.size();
+        Set<String> names = new HashSet<>();
+        MandatoryField[] fields = new MandatoryField[size];
+        for (int index = 0; index < size; index++) {
+            String name = validator.name(index);
+            Predicate<Object> rule = rules.isEmpty() ? null : compile(findField(clz, name), rules);
+            fields[index] = new MandatoryField(name, validator.type(index), FieldAccessor.of(validator, index),
+                    rule);
+            names.add(name);
+        }
+
+        MandatoryField[] ruled = ruled(clz, names, rules);
+        if (size == 0 && containers.length == 0 && ruled.length == 0) {
+            return EMPTY;
+        }
+        return new ValidationPlan(fields, containers, ruled, null);
+    }
+
+    /**
+     * Resolves mandatory fields through reflection.
+     *
+     * @param clz           class to inspect
+     * @param annotatedType annotation by which variables are marked mandatory
+     * @return plan for given class
+     */
+    private static ValidationPlan reflect(Class<?> clz, Class<? extends Annotation> annotatedType,
+                                          boolean compactAll,
+                                          Map<Class<? extends Annotation>, NullDefenseRule<?>> rules) {
+        List<MandatoryField> mandatory = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        for (Class<?> current = clz; isUserClass(current); current = current.getSuperclass()) {
+            boolean isMarkedInClz = current.isAnnotationPresent(annotatedType);
+            for (Field field : current.getDeclaredFields()) {
+                if (isSkipped(field)) {
+                    continue;
+                }
+                if (isMarkedInClz || field.isAnnotationPresent(annotatedType)) {
+                    mandatory.add(new MandatoryField(field.getName(), field.getType(),
+                            FieldAccessor.of(field), compile(field, rules)));
+                    names.add(field.getName());
+                }
+            }
+        }
+
+        MandatoryField[] containers = compactAll ? containers(clz, annotatedType) : EMPTY.containers;
+        MandatoryField[] ruled = ruled(clz, names, rules);
+        if (mandatory.isEmpty() && containers.length == 0 && ruled.length == 0) {
+            return EMPTY;
+        }
+        return new ValidationPlan(mandatory.toArray(new MandatoryField[0]), containers, ruled, null);
+    }
+
+    /**
+     * Resolves fields having rules, which are not mandatory.
+     *
+     * @param clz       class to inspect
+     * @param mandatory names of mandatory fields, already checked along with their rules
+     * @param rules     rules by annotation marking fields they check
+     * @return fields having rules, empty for JDK classes
+     */
+    private static MandatoryField[] ruled(Class<?> clz, Set<String> mandatory,
+                                          Map<Class<? extends Annotation>, NullDefenseRule<?>> rules) {
+        if (rules.isEmpty()) {
+            return EMPTY.ruled;
+        }
+        List<MandatoryField> ruled = new ArrayList<>();
+        for (Class<?> current = clz; isUserClass(current); current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || mandatory.contains(field.getName())) {
+                    continue;
+                }
+                Predicate<Object> rule = compile(field, rules);
+                if (rule != null) {
+                    ruled.add(new MandatoryField(field.getName(), field.getType(), FieldAccessor.of(field), rule));
+                }
+            }
+        }
+        if (ruled.isEmpty()) {
+            return EMPTY.ruled;
+        }
+        return ruled.toArray(new MandatoryField[0]);
+    }
+
+    /**
+     * Compiles checks of all rules whose annotation is present on field.
+     *
+     * @param field declared variable
+     * @param rules rules by annotation marking fields they check
+     * @return combined check, {@code null} if field has no rule
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate<Object> compile(Field field,
+                                             Map<Class<? extends Annotation>, NullDefenseRule<?>> rules) {
+        Predicate<Object> compiled = null;
+        for (Map.Entry<Class<? extends Annotation>, NullDefenseRule<?>> entry : rules.entrySet()) {
+            Annotation annotation = field.getAnnotation(entry.getKey());
+            if (annotation == null) {
+                continue;
+            }
+            NullDefenseRule<Annotation> rule = (NullDefenseRule<Annotation>) entry.getValue();
+            Predicate<Object> check = rule.compile(annotation, field.getType());
+            if (check == null) {
+                throw new NullPointerException("Rule compiled no check: " + field.getName());
+            }
+            compiled = compiled == null ? check : compiled.and(check);
+        }
+        return compiled;
+    }
+
+    /**
+     * Resolves collection, map &amp; array fields which are not mandatory.
+     *
+     * @param clz           class to inspect
+     * @param annotatedType annotation by which variables are marked mandatory
+     * @return container fields, empty for JDK classes
+     */
+    private static MandatoryField[] containers(Class<?> clz, Class<? extends Annotation> annotatedType) {
+        List<MandatoryField> containers = new ArrayList<>();
+        for (Class<?> current = clz; isUserClass(current); current = current.getSuperclass()) {
+            if (current.isAnnotationPresent(annotatedType)) {
+                // All fields are mandatory in marked classes
+                continue;
+            }
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())
+                        && isContainer(field.getType())
+                        && !field.isAnnotationPresent(annotatedType)) {
+                    containers.add(new MandatoryField(field.getName(), field.getType(),
+                            FieldAccessor.of(field)));
+                }
+            }
+        }
+        if (containers.isEmpty()) {
+            return EMPTY.containers;
+        }
+        return containers.toArray(new MandatoryField[0]);
+    }
+
+    /**
+     * @param type declared type of field
+     * @return {@code true} if type always holds a Collection, Map or an array of objects
+     */
+    private static boolean isContainer(Class<?> type) {
+        return Collection.class.isAssignableFrom(type)
+                || Map.class.isAssignableFrom(type)
+                || (type.isArray() && !type.getComponentType().isPrimitive());
+    }
+
+    /**
+     * JDK classes never declare mandatory fields, hence hierarchy is walked until one is reached.
+     *
+     * @param clz class in hierarchy, {@code null} past {@link Object}
+     * @return {@code true} if fields of class are to be inspected
+     */
+    private static boolean isUserClass(Class<?> clz) {
+        return clz != null && clz.getClassLoader() != null && !clz.isArray();
+    }
+
+    /**
+     * Looks up validator generated for given class &amp; annotation.
+     *
+     * @param clz           class to inspect
+     * @param annotatedType annotation by which variables are marked mandatory
+     * @return generated validator, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    private static NullDefenseValidator<Object> findValidator(Class<?> clz,
+                                                              Class<? extends Annotation> annotatedType) {
+        ClassLoader classLoader = clz.getClassLoader();
+        if (classLoader == null || clz.isArray()) {
+            // JDK classes are never processed
+            return null;
+        }
+
+        // Nested classes are generated as Outer$Inner_NullDefenseValidator
+        String name = clz.getName() + NullDefenseValidator.SUFFIX;
+        Object validator;
+        try {
+            validator = Class.forName(name, true, classLoader).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Failed to create validator: " + name, e);
+        }
+
+        if (!(validator instanceof NullDefenseValidator)) {
+            return null;
+        }
+        NullDefenseValidator<Object> generated = (NullDefenseValidator<Object>) validator;
+        // Generated for some other annotation.
+        return generated.annotationType() == annotatedType ? generated : null;
+    }
+
+    /**
+     * Static fields are not part of an object, while primitives &amp; their boxed types
+     * are never validated.
+     *
+     * @param field declared variable in class
+     * @return {@code true} if field can never be mandatory
+     */
+    private static boolean isSkipped(Field field) {
+        Class<?> type = field.getType();
+        return Modifier.isStatic(field.getModifiers())
+                || type.isPrimitive()
+                || Primitives.isWrapperType(type);
+    }
+
+    /**
+     * @return {@code true} if there is nothing to validate or compact
+     */
+    boolean isEmpty() {
+        return fields.length == 0 && containers.length == 0 && ruled.length == 0;
+    }
+
+    /**
+     * Resolves names by which mandatory fields appear in JSON, as bound by Gson.
+     *
+     * @param clz      class this plan belongs to
+     * @param strategy naming strategy of Gson, for fields without {@link SerializedName}
+     * @return names of mandatory fields by their serialized names, including alternates
+     */
+    Map<String, String> serializedNames(Class<?> clz, FieldNamingStrategy strategy) {
+        Map<String, String> names = new HashMap<>();
+        for (MandatoryField mandatory : fields) {
+            Field field = findField(clz, mandatory.name);
+
+            SerializedName serializedName = field.getAnnotation(SerializedName.class);
+            if (serializedName == null) {
+                names.put(strategy.translateName(field), mandatory.name);
+            } else {
+                names.put(serializedName.value(), mandatory.name);
+                for (String alternate : serializedName.alternate()) {
+                    names.put(alternate, mandatory.name);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @param clz  class this plan belongs to
+     * @param name name of declared variable, in class or any of its superclasses
+     * @return field nearest to class
+     */
+    private static Field findField(Class<?> clz, String name) {
+        for (Class<?> current = clz; current != null; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // Declared by a superclass
+            }
+        }
+        throw new RuntimeException("Failed to access field: " + name);
+    }
+
+    /**
+     * @return mandatory fields, callers must not modify the array
+     */
+    MandatoryField[] fields() {
+        return fields;
+    }
+
+    /**
+     * @return container fields which are not mandatory, callers must not modify the array
+     */
+    MandatoryField[] containers() {
+        return containers;
+    }
+
+    /**
+     * @return fields having rules which are not mandatory, callers must not modify the array
+     */
+    MandatoryField[] ruled() {
+        return ruled;
+    }
+
+    /**
+     * @return same plan, checking mandatory fields in order of observed rejections
+     */
+    ValidationPlan adaptive() {
+        if (fields.length < 2 || adaptive != null) {
+            // Nothing to reorder
+            return this;
+        }
+        return new ValidationPlan(fields, containers, ruled, new AdaptiveOrder(fields));
+    }
+
+    /**
+     * @return mandatory fields in order of checking, callers must not modify the array
+     */
+    MandatoryField[] checkOrder() {
+        return adaptive == null ? fields : adaptive.order;
+    }
+
+    /**
+     * Records outcome of checking an object, only adaptive plans keep a sample of them. Sampling is decided
+     * per thread, hence threads validating objects of the same class rarely write to shared counters.
+     *
+     * @param rejectedBy mandatory field which rejected the object, {@code null} if object is valid
+     */
+    void checked(MandatoryField rejectedBy) {
+        if (adaptive != null && ThreadLocalRandom.current().nextInt(SAMPLED_CHECKS) == 0) {
+            adaptive.record(fields, rejectedBy);
+        }
+    }
+
+    /**
+     * Rejections per mandatory field among sampled checks &amp; order derived from them.
+     * <p>
+     * Counters are updated without any synchronization, hence concurrent updates may be lost. Counts are
+     * only a heuristic, while the order is published through a single volatile write.
+     */
+    private static final class AdaptiveOrder {
+        /* Mandatory fields, most rejecting first */
+        volatile MandatoryField[] order;
+        /* Rejections per mandatory field, in declaration order */
+        private final int[] rejections;
+        /* Sampled checks since last reordering */
+        private int checks;
+
+        AdaptiveOrder(MandatoryField[] fields) {
+            this.order = fields;
+            this.rejections = new int[fields.length];
+        }
+
+        void record(MandatoryField[] fields, MandatoryField rejectedBy) {
+            if (rejectedBy != null) {
+                for (int index = 0; index < fields.length; index++) {
+                    if (fields[index] == rejectedBy) {
+                        rejections[index]++;
+                        break;
+                    }
+                }
+            }
+            if (++checks >= REORDER_INTERVAL) {
+                checks = 0;
+                reorder(fields);
+            }
+        }
+
+        /**
+         * Sorts fields by rejections, ties are kept in declaration order. Counts are halved, for recent
+         * rejections to weigh more.
+         */
+        private void reorder(MandatoryField[] fields) {
+            int length = fields.length;
+            int[] counts = new int[length];
+            int[] indexes = new int[length];
+            for (int index = 0; index < length; index++) {
+                counts[index] = rejections[index];
+                rejections[index] = counts[index] >> 1;
+                indexes[index] = index;
+            }
+
+            // Insertion sort, plans have few fields
+            for (int current = 1; current < length; current++) {
+                int index = indexes[current];
+                int position = current;
+                while (position > 0 && counts[indexes[position - 1]] < counts[index]) {
+                    indexes[position] = indexes[position - 1];
+                    position--;
+                }
+                indexes[position] = index;
+            }
+
+            MandatoryField[] sorted = new MandatoryField[length];
+            for (int position = 0; position < length; position++) {
+                sorted[position] = fields[indexes[position]];
+            }
+            order = sorted;
+        }
+    }
+
+    /**
+     * Single mandatory field along with its precomputed traits, also used for container
+     * fields which are only compacted &amp; for fields which are only checked by rules.
+     */
+    static final class MandatoryField {
+        /* Name of declared variable */
+        final String name;
+        /* Declared type of variable */
+        final Class<?> type;
+        /* Reads value of declared variable */
+        final FieldAccessor accessor;
+        /* When true, declared type may hold a Collection, Map or an array, e.g. List, Object or Object[] */
+        final boolean container;
+        /* Compiled check of non-null values, null when field has no rule */
+        final Predicate<Object> rule;
+
+        MandatoryField(String name, Class<?> type, FieldAccessor accessor) {
+            this(name, type, accessor, null);
+        }
+
+        MandatoryField(String name, Class<?> type, FieldAccessor accessor, Predicate<Object> rule) {
+            this.name = name;
+            this.type = type;
+            this.accessor = accessor;
+            this.rule = rule;
+            this.container = Collection.class.isAssignableFrom(type)
+                    || Map.class.isAssignableFrom(type)
+                    || type.isArray()
+                    || type.isAssignableFrom(Collection.class)
+                    || type.isAssignableFrom(Map.class)
+                    || type.isAssignableFrom(Object[].class);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+# Generated validators are looked up by binary name of validated class, e.g. Outer$Inner_NullDefenseValidator,
+# keep both names.
+-if class **_NullDefenseValidator
+-keepnames class <1>
+-keep class * implements com.venomvendor.gson.NullDefenseValidator {
+    public <init>();
+}
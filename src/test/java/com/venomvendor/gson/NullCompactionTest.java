@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Tests for removing null from collections, maps & arrays")
+class NullCompactionTest {
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Random access list is compacted in place, keeping order")
+    void randomAccessTest() {
+        List<String> list = new ArrayList<>(Arrays.asList(null, "Queen", null, null, "Prince", null));
+
+        assertEquals(4, NullCompaction.removeNulls(list));
+        assertEquals(Arrays.asList("Queen", "Prince"), list);
+
+        assertEquals(0, NullCompaction.removeNulls(list));
+        assertEquals(Arrays.asList("Queen", "Prince"), list);
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Lists which cannot be resized are left unchanged")
+    void fixedSizeTest() {
+        List<String> list = Arrays.asList("Queen", null, "Prince", null, "Princess");
+
+        assertThrows(UnsupportedOperationException.class, () -> NullCompaction.removeNulls(list));
+        assertEquals(Arrays.asList("Queen", null, "Prince", null, "Princess"), list);
+
+        List<String> unmodifiable = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(null, "Queen")));
+        assertThrows(UnsupportedOperationException.class, () -> NullCompaction.removeNulls(unmodifiable));
+        assertEquals(Arrays.asList(null, "Queen"), unmodifiable);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Other collections are compacted, keeping order")
+    void sequentialTest() {
+        List<String> list = new LinkedList<>(Arrays.asList("Queen", null, "Prince"));
+        assertEquals(1, NullCompaction.removeNulls(list));
+        assertEquals(Arrays.asList("Queen", "Prince"), list);
+
+        Set<String> set = new LinkedHashSet<>(Arrays.asList(null, "Queen"));
+        assertEquals(1, NullCompaction.removeNulls(set));
+        assertEquals(Collections.singleton("Queen"), set);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Collections without null are never modified")
+    void unmodifiedTest() {
+        assertEquals(0, NullCompaction.removeNulls(List.of("Queen", "Prince")));
+        assertEquals(0, NullCompaction.removeNulls(Set.of("Queen")));
+        assertEquals(0, NullCompaction.removeNulls(new TreeSet<>(Arrays.asList("Queen", "Prince"))));
+        assertEquals(0, NullCompaction.removeNulls(Collections.unmodifiableList(new ArrayList<>(List.of("Queen")))));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Entries with null key or value are removed from maps")
+    void mapTest() {
+        Map<String, String> map = new HashMap<>();
+        map.put(null, "Queen");
+        map.put("prince", null);
+        map.put("princess", "Princess");
+
+        assertEquals(2, NullCompaction.removeNulls(map));
+        assertEquals(Map.of("princess", "Princess"), map);
+
+        assertEquals(0, NullCompaction.removeNulls(Map.of("queen", "Queen")));
+        assertEquals(0, NullCompaction.removeNulls(new TreeMap<>(Map.of("queen", "Queen"))));
+        assertEquals(0, NullCompaction.removeNulls(new ConcurrentHashMap<>(Map.of("queen", "Queen"))));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Arrays are copied into right-sized arrays of same type")
+    void arrayTest() {
+        String[] array = {null, "Queen", null, "Prince"};
+
+        int nulls = NullCompaction.countNulls(array);
+        Object[] copy = NullCompaction.withoutNulls(array, nulls);
+
+        assertEquals(2, nulls);
+        assertEquals(String[].class, copy.getClass());
+        assertArrayEquals(new String[]{"Queen", "Prince"}, copy);
+    }
+}
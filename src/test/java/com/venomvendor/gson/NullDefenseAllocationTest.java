@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.model.ParentTest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Bytes allocated per deserialized object, over plain Gson. Budgets are in bytes per object, read from system
+ * properties {@value #BUDGET_PROPERTY} &amp; {@value #STREAMING_BUDGET_PROPERTY}, e.g.
+ * {@code ./gradlew test -PallocationBudget=8 -PstreamingAllocationBudget=8}.
+ */
+@DisplayName("Tests for allocation overhead while reading")
+class NullDefenseAllocationTest extends BaseTest {
+
+    private static final String BUDGET_PROPERTY = "nulldefense.allocation.budget";
+    private static final String STREAMING_BUDGET_PROPERTY = "nulldefense.allocation.streaming.budget";
+    /* Measured at most 4 bytes per object, validating after reading walks bound objects without allocating */
+    private static final long DEFAULT_BUDGET = 16;
+    /*
+     * Measured at most 4 bytes per object, reader wrapping Gson's reader is reused per thread.
+     * A reader allocated per read costs well over 100 bytes per object of the smaller fixtures.
+     */
+    private static final long DEFAULT_STREAMING_BUDGET = 16;
+    private static final int WARM_UP = 200;
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 50;
+
+    private static final List<String> FIXTURES = List.of("valid.json", "valid-missing-primitive.json",
+            "empty-collection.json", "missing-known-language-no-child.json", "missing-known-language-one-child.json",
+            "missing-name-in-child.json", "missing-parent-name.json", "large-input.json");
+
+    private final Gson plain = new Gson();
+
+    /**
+     * @return allocation counter of current thread, {@code null} if not supported by JVM
+     */
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    /**
+     * @return fewest bytes allocated by current thread, while reading input {@link #ITERATIONS} times
+     */
+    private static long allocated(com.sun.management.ThreadMXBean threads, Gson gson, String input) {
+        long thread = Thread.currentThread().getId();
+        Object sink = null;
+        for (int index = 0; index < WARM_UP; index++) {
+            sink = gson.fromJson(input, ParentTest.class);
+        }
+        long fewest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = threads.getThreadAllocatedBytes(thread);
+            for (int index = 0; index < ITERATIONS; index++) {
+                sink = gson.fromJson(input, ParentTest.class);
+            }
+            fewest = Math.min(fewest, threads.getThreadAllocatedBytes(thread) - start);
+        }
+        // Keeps result reachable
+        assertTrue(sink == null || sink instanceof ParentTest);
+        return fewest;
+    }
+
+    /**
+     * @return number of objects in JSON, i.e. objects deserialized by plain Gson
+     */
+    private static int objects(String input) throws IOException {
+        int objects = 0;
+        JsonReader reader = new JsonReader(new StringReader(input));
+        reader.setLenient(true);
+        for (JsonToken token = reader.peek(); token != JsonToken.END_DOCUMENT; token = reader.peek()) {
+            switch (token) {
+                case BEGIN_OBJECT:
+                    objects++;
+                    reader.beginObject();
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    break;
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    break;
+                case NAME:
+                    reader.nextName();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        return objects;
+    }
+
+    private void assertWithinBudget(NullDefenseTypeAdapterFactory factory, long budget) throws IOException {
+        com.sun.management.ThreadMXBean threads = threadBean();
+        assumeTrue(threads != null, "Thread allocation is not measured by this JVM");
+        Gson defensive = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+
+        for (String fixture : FIXTURES) {
+            String input = getInput(fixture);
+            long objects = (long) objects(input) * ITERATIONS;
+            long overhead = (allocated(threads, defensive, input) - allocated(threads, plain, input)) / objects;
+            assertTrue(overhead <= budget, fixture + " allocates " + overhead
+                    + " bytes per object over plain Gson, budget is " + budget);
+        }
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Validating after reading should stay within allocation budget")
+    void shouldStayWithinBudget() throws IOException {
+        assertWithinBudget(new NullDefenseTypeAdapterFactory(MandatoryTest.class),
+                Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Validating while reading should stay within allocation budget")
+    void shouldStayWithinBudgetWhileReading() throws IOException {
+        assertWithinBudget(NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                .validateWhileReading()
+                .build(), Long.getLong(STREAMING_BUDGET_PROPERTY, DEFAULT_STREAMING_BUDGET));
+    }
+}
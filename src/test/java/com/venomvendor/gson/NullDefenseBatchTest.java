@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.model.ChildTest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests for parsing batches of documents concurrently")
+class NullDefenseBatchTest extends BaseTest {
+
+    private static final String VALID = "{\"name\":\"Child %d\",\"language\":{\"knownLanguages\":[\"Telugu\"]}}";
+    private static final String INVALID = "{\"name\":null,\"language\":{\"knownLanguages\":[\"Telugu\"]}}";
+    private static final String MALFORMED = "{\"name\":";
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class))
+            .create();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return every third document is discarded, every seventh is malformed
+     */
+    private static List<String> inputs(int size) {
+        List<String> inputs = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            if (index % 7 == 6) {
+                inputs.add(MALFORMED);
+            } else if (index % 3 == 2) {
+                inputs.add(INVALID);
+            } else {
+                inputs.add(String.format(VALID, index));
+            }
+        }
+        return inputs;
+    }
+
+    private static void assertOrdered(NullDefenseBatch.Result<ChildTest> result, int size) {
+        assertEquals(size, result.values().size());
+        for (int index = 0; index < size; index++) {
+            ChildTest child = result.values().get(index);
+            if (index % 7 == 6) {
+                assertNull(child);
+                assertTrue(result.failures().get(index) instanceof JsonSyntaxException);
+            } else if (index % 3 == 2) {
+                assertNull(child);
+                assertTrue(result.discarded().contains(index));
+            } else {
+                assertNotNull(child);
+                assertEquals("Child " + index, child.getName());
+            }
+        }
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Documents should be returned in input order, with discards & failures reported apart")
+    void shouldKeepInputOrder() {
+        int size = 1000;
+        NullDefenseBatch.Result<ChildTest> result = NullDefenseBatch.of(gson, TypeToken.get(ChildTest.class),
+                executor, 7).parseStrings(inputs(size));
+
+        assertOrdered(result, size);
+        assertEquals(size / 7, result.failures().size());
+        assertEquals(result.discarded().stream().sorted().collect(Collectors.toList()), result.discarded());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Bytes & readers should be parsed as strings are")
+    void shouldParseAllInputs() {
+        int size = 100;
+        NullDefenseBatch<ChildTest> batch = NullDefenseBatch.of(gson, TypeToken.get(ChildTest.class), executor);
+
+        List<byte[]> bytes = inputs(size).stream()
+                .map(input -> input.getBytes(StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+        assertOrdered(batch.parseBytes(bytes), size);
+
+        List<Reader> readers = inputs(size).stream()
+                .map(StringReader::new)
+                .collect(Collectors.toList());
+        assertOrdered(batch.parseReaders(readers), size);
+
+        assertTrue(batch.parseStrings(List.of()).values().isEmpty());
+
+        // Empty documents & null hold nothing to discard
+        NullDefenseBatch.Result<ChildTest> result = batch.parseStrings(List.of("", " \n", "null", " null ", INVALID));
+        assertEquals(Arrays.asList(null, null, null, null, null), result.values());
+        assertEquals(List.of(4), result.discarded());
+        assertTrue(result.failures().isEmpty());
+        assertTrue(batch.parseStrings(List.of(String.format(VALID, 0) + " {}")).failures()
+                .get(0) instanceof JsonSyntaxException);
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Invalid arguments & failing tasks should throw")
+    void shouldThrow() {
+        TypeToken<ChildTest> type = TypeToken.get(ChildTest.class);
+        assertThrows(NullPointerException.class, () -> NullDefenseBatch.of(null, type, executor));
+        assertThrows(NullPointerException.class, () -> NullDefenseBatch.of(gson, type, null));
+        assertThrows(IllegalArgumentException.class, () -> NullDefenseBatch.of(gson, type, executor, 0));
+
+        List<String> inputs = new ArrayList<>(inputs(10));
+        inputs.set(4, null);
+        NullDefenseBatch<ChildTest> batch = NullDefenseBatch.of(gson, type, executor, 2);
+        assertThrows(NullPointerException.class, () -> batch.parseStrings(inputs));
+    }
+}
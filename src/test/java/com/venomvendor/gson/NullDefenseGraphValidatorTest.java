@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.model.ChildTest;
+import com.venomvendor.gson.model.EntryTest;
+import com.venomvendor.gson.model.EnvelopeTest;
+import com.venomvendor.gson.model.HouseholdTest;
+import com.venomvendor.gson.model.LanguageTest;
+import com.venomvendor.gson.model.NodeTest;
+import com.venomvendor.gson.model.ParentTest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests for validating object graphs, which are already built")
+class NullDefenseGraphValidatorTest extends BaseTest {
+
+    private final NullDefenseTypeAdapterFactory factory = new NullDefenseTypeAdapterFactory(MandatoryTest.class);
+    private final NullDefenseGraphValidator validator = NullDefenseGraphValidator.of(factory);
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Sanitized graph should match result of fromJson")
+    void shouldMatchFromJson() {
+        List<String> files = List.of("valid.json", "valid-missing-primitive.json",
+                "empty-collection.json", "missing-known-language-no-child.json",
+                "missing-known-language-one-child.json", "missing-name-in-child.json", "missing-parent-name.json",
+                "large-input.json");
+        for (String file : files) {
+            String input = getInput(file);
+            ParentTest expected = defensiveParser.fromJson(input, ParentTest.class);
+            assertEquals(expected != null, validator.isValid(parser.fromJson(input, ParentTest.class)), file);
+            ParentTest sanitized = validator.sanitize(parser.fromJson(input, ParentTest.class));
+            assertEquals(parser.toJson(expected), parser.toJson(sanitized), file);
+        }
+
+        String household = "{\"members\":{\"a\":{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}},"
+                + "\"b\":{\"language\":{\"knownLanguages\":[\"Telugu\"]}}},\"tags\":[\"x\"],"
+                + "\"guests\":[{\"name\":null},{\"name\":\"Prince\",\"language\":{\"knownLanguages\":[\"Telugu\"]}}]}";
+        assertEquals(parser.toJson(defensiveParser.fromJson(household, HouseholdTest.class)),
+                parser.toJson(validator.sanitize(parser.fromJson(household, HouseholdTest.class))));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Cycles should be walked once & invalid objects replaced")
+    void shouldHandleCycles() {
+        NodeTest first = new NodeTest("first");
+        NodeTest second = new NodeTest("second");
+        NodeTest invalid = new NodeTest(null);
+        first.setNext(second);
+        second.setNext(first);
+        first.getLinks().add(first);
+        first.getLinks().add(invalid);
+        second.setNext(invalid);
+
+        assertTrue(validator.isValid(first));
+        assertFalse(validator.isValid(invalid));
+        assertSame(invalid, first.getLinks().get(1));
+
+        assertSame(first, validator.sanitize(first));
+        assertNull(second.getNext());
+        assertEquals(2, first.getLinks().size());
+        assertNull(first.getLinks().get(1));
+        assertNull(validator.sanitize(invalid));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Containers which cannot be modified should be replaced by compacted copies")
+    void shouldCopyUnmodifiableContainers() {
+        List<String> fixed = Arrays.asList("Telugu", null, "Hindi");
+        LanguageTest language = new LanguageTest();
+        language.setKnownLanguages(fixed);
+
+        assertSame(language, validator.sanitize(language));
+        assertEquals(Arrays.asList("Telugu", "Hindi"), language.getKnownLanguages());
+        assertEquals(Arrays.asList("Telugu", null, "Hindi"), fixed);
+
+        Map<String, ChildTest> members = new HashMap<>();
+        members.put("a", null);
+        HouseholdTest household = new HouseholdTest();
+        household.setMembers(Collections.unmodifiableMap(members));
+        household.setTags(new String[]{"x"});
+        assertNull(validator.sanitize(household));
+        assertEquals(1, members.size());
+
+        language.setKnownLanguages(Collections.unmodifiableList(Arrays.asList(null, null)));
+        assertNull(validator.sanitize(language));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Deep graphs should neither overflow stack nor exceed max depth")
+    void shouldLimitDepth() {
+        NodeTest head = new NodeTest("head");
+        NodeTest tail = head;
+        for (int index = 0; index < 100_000; index++) {
+            NodeTest node = new NodeTest("node" + index);
+            tail.setNext(node);
+            tail = node;
+        }
+        tail.setNext(new NodeTest(null));
+
+        assertSame(head, NullDefenseGraphValidator.of(factory, 1_000_000).sanitize(head));
+        assertNull(tail.getNext());
+        assertThrows(IllegalStateException.class, () -> validator.sanitize(head));
+        assertThrows(IllegalArgumentException.class, () -> NullDefenseGraphValidator.of(factory, 0));
+        assertThrows(NullPointerException.class, () -> NullDefenseGraphValidator.of(null));
+
+        NullDefenseTypeAdapterFactory shallow = factory.toBuilder().maxDepth(8).build();
+        assertThrows(IllegalStateException.class, () -> shallow.sanitize(head));
+        assertThrows(IllegalStateException.class, () -> NullDefenseGraphValidator.of(shallow).isValid(head));
+        assertTrue(shallow.validate(new NodeTest("single")));
+        assertThrows(IllegalArgumentException.class, () -> factory.toBuilder().maxDepth(0));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Objects without anything to validate should not be walked into")
+    void shouldSkipTypesWithoutPlan() {
+        EntryTest entry = new EntryTest();
+        entry.setName("entry");
+        entry.setPayload(new SQLException("payload"));
+        assertSame(entry, validator.sanitize(entry));
+
+        entry.setPayload(new StringBuilder("payload"));
+        assertTrue(validator.isValid(entry));
+
+        EntryTest invalid = new EntryTest();
+        entry.setPayload(invalid);
+        assertTrue(validator.isValid(entry));
+        assertSame(entry, validator.sanitize(entry));
+        assertNull(entry.getPayload());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Objects without a plan should be walked into, when they may hold objects having one")
+    void shouldWalkHoldersWithoutPlan() {
+        String child = "{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}}";
+        String input = "{\"items\":[{\"name\":null}," + child + "],"
+                + "\"inner\":{\"items\":[" + child + ",{\"name\":null}]}}";
+        EnvelopeTest expected = defensiveParser.fromJson(input, EnvelopeTest.class);
+        EnvelopeTest envelope = parser.fromJson(input, EnvelopeTest.class);
+        assertTrue(validator.isValid(envelope));
+        assertSame(envelope, validator.sanitize(envelope));
+        assertEquals(parser.toJson(expected), parser.toJson(envelope));
+        assertNull(envelope.getItems().get(0));
+        assertNull(envelope.getInner().getItems().get(1));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.venomvendor.gson.model.ChildTest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests for reading array elements one at a time")
+class NullDefenseIteratorTest extends BaseTest {
+
+    private static final TypeToken<ChildTest> CHILD = TypeToken.get(ChildTest.class);
+
+    private static String child(String name) {
+        return "{\"name\":\"" + name + "\",\"age\":5,\"language\":{\"knownLanguages\":[\"Telugu\"]}}";
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Should yield only valid elements, in order")
+    void shouldYieldValidElements() {
+        String input = "[" + child("Queen") + ",{\"name\":null}," + child("Prince") + ",null,{}]";
+
+        try (Stream<ChildTest> children = NullDefenseIterator.of(defensiveParser, new StringReader(input), CHILD)
+                .stream()) {
+            List<String> names = children.map(ChildTest::getName).collect(Collectors.toList());
+            assertEquals(List.of("Queen", "Prince"), names);
+        }
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Should read lazily, one element at a time")
+    void shouldReadLazily() {
+        String input = "[" + child("Queen") + ", malformed";
+        NullDefenseIterator<ChildTest> iterator =
+                NullDefenseIterator.of(defensiveParser, new StringReader(input), CHILD);
+
+        assertTrue(iterator.hasNext());
+        assertEquals("Queen", iterator.next().getName());
+        assertThrows(JsonSyntaxException.class, iterator::hasNext);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Null & empty arrays have no elements")
+    void shouldHaveNoElements() {
+        NullDefenseIterator<ChildTest> iterator =
+                NullDefenseIterator.of(defensiveParser, new StringReader("null"), CHILD);
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+
+        assertFalse(NullDefenseIterator.of(defensiveParser, new StringReader("[]"), CHILD).hasNext());
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Should throw JsonSyntaxException when input is not an array")
+    void shouldThrowForObject() {
+        assertThrows(JsonSyntaxException.class,
+                () -> NullDefenseIterator.of(defensiveParser, new StringReader(child("Queen")), CHILD));
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Should throw JsonSyntaxException when input is truncated")
+    void shouldThrowForTruncatedInput() {
+        for (String input : List.of("[" + child("Queen") + ",", "[" + child("Queen"), "")) {
+            assertThrows(JsonSyntaxException.class, () -> {
+                NullDefenseIterator<ChildTest> iterator =
+                        NullDefenseIterator.of(defensiveParser, new StringReader(input), CHILD);
+                while (iterator.hasNext()) {
+                    iterator.next();
+                }
+            });
+        }
+    }
+}
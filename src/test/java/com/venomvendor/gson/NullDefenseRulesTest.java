@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.annotation.MinSizeTest;
+import com.venomvendor.gson.annotation.NotBlankTest;
+import com.venomvendor.gson.annotation.RangeTest;
+import com.venomvendor.gson.model.ProfileTest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests for validation rules beyond null & empty")
+class NullDefenseRulesTest extends BaseTest {
+
+    private static final String PROFILE = "{\"name\":%s,\"tags\":%s,\"age\":%d,\"rating\":%s}";
+
+    private final NullDefenseTypeAdapterFactory factory = NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+            .rule(NotBlankTest.class, NullDefenseRules.notBlank())
+            .rule(MinSizeTest.class, NullDefenseRules.minSize(MinSizeTest::value))
+            .rule(RangeTest.class, NullDefenseRules.range(RangeTest::min, RangeTest::max))
+            .build();
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+
+    private ProfileTest read(String name, String tags, int age, String rating) {
+        return gson.fromJson(String.format(PROFILE, name, tags, age, rating), ProfileTest.class);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Values satisfying rules should be retained, null values of optional fields pass")
+    void shouldRetainValid() {
+        ProfileTest profile = read("\"VenomVendor\"", "[\"a\",\"b\"]", 150, "9.5");
+        assertNotNull(profile);
+        assertEquals(150, profile.getAge());
+
+        profile = read("\" Venom \"", "null", 0, "null");
+        assertNotNull(profile);
+        assertNull(profile.getTags());
+        assertNull(profile.getRating());
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Values failing rules should discard object, on mandatory & optional fields alike")
+    void shouldDiscardInvalid() {
+        assertNull(read("\" \\t \"", "[\"a\",\"b\"]", 10, "5"));
+        assertNull(read("null", "[\"a\",\"b\"]", 10, "5"));
+        assertNull(read("\"VenomVendor\"", "[\"a\"]", 10, "5"));
+        assertNull(read("\"VenomVendor\"", "[\"a\",\"b\"]", 151, "5"));
+        assertNull(read("\"VenomVendor\"", "[\"a\",\"b\"]", -1, "5"));
+        assertNull(read("\"VenomVendor\"", "[\"a\",\"b\"]", 10, "10.5"));
+
+        // Invalid elements are read as null
+        TypeToken<List<ProfileTest>> type = new TypeToken<List<ProfileTest>>() {
+        };
+        String input = "[" + String.format(PROFILE, "\"Venom\"", "[\"a\",\"b\"]", 5, "5") + ","
+                + String.format(PROFILE, "\"\"", "[\"a\",\"b\"]", 5, "5") + "]";
+        assertNull(gson.fromJson(input, type).get(1));
+        Gson streaming = new GsonBuilder().registerTypeAdapterFactory(factory.validateWhileReading()).create();
+        assertNull(streaming.fromJson(input, type).get(1));
+        assertNotNull(streaming.fromJson(input, type).get(0));
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Sizes should not count null, be it read, validated or written")
+    void shouldCountWithoutNull() {
+        String input = String.format(PROFILE, "\"Venom\"", "[\"a\",null]", 5, "5");
+        assertNull(gson.fromJson(input, ProfileTest.class));
+
+        ProfileTest profile = parser.fromJson(input, ProfileTest.class);
+        assertFalse(factory.validate(profile));
+        Gson writing = new GsonBuilder().registerTypeAdapterFactory(factory.defendWhileWriting()).create();
+        assertEquals("null", writing.toJson(profile));
+
+        profile = parser.fromJson(String.format(PROFILE, "\"Venom\"", "[\"a\",null,\"b\"]", 5, "5"),
+                ProfileTest.class);
+        assertTrue(factory.validate(profile));
+        assertNotNull(gson.fromJson(writing.toJson(profile), ProfileTest.class));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Field failing its rule should be reported to listener")
+    void shouldReportField() {
+        List<String> fields = Collections.synchronizedList(new ArrayList<>());
+        NullDefenseListener listener = new NullDefenseListener() {
+            @Override
+            public void onDiscard(Class<?> type, String field) {
+                fields.add(field);
+            }
+        };
+        Gson reporting = new GsonBuilder().registerTypeAdapterFactory(factory.listener(listener)).create();
+
+        reporting.fromJson(String.format(PROFILE, "\"\"", "[]", 5, "5"), ProfileTest.class);
+        reporting.fromJson(String.format(PROFILE, "\"Venom\"", "[]", 5, "5"), ProfileTest.class);
+        reporting.fromJson(String.format(PROFILE, "\"Venom\"", "[\"a\",\"b\"]", 500, "5"), ProfileTest.class);
+        assertEquals(Arrays.asList("name", "tags", "age"), fields);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Rules should be compiled into cached plan")
+    void shouldCompileIntoPlan() {
+        ValidationPlan plan = factory.config().plans.get(ProfileTest.class);
+        assertEquals(1, plan.fields().length);
+        assertNotNull(plan.fields()[0].rule);
+        assertEquals(3, plan.ruled().length);
+        assertFalse(plan.isEmpty());
+
+        // Rules are ignored unless registered
+        assertEquals(0, ValidationPlan.of(ProfileTest.class, MandatoryTest.class).ruled().length);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Checks should be chosen by declared type")
+    void shouldCheckByType() {
+        Predicate<Object> size = NullDefenseRules.<MinSizeTest>minSize(annotation -> 2).compile(null, Object.class);
+        assertTrue(size.test("ab"));
+        assertTrue(size.test(new int[2]));
+        assertFalse(size.test(new String[]{"a", null}));
+        assertFalse(size.test(5));
+
+        Predicate<Object> range = NullDefenseRules.<RangeTest>range(annotation -> 1, annotation -> 10)
+                .compile(null, Number.class);
+        assertTrue(range.test(new BigDecimal("9.99")));
+        assertFalse(range.test(new BigDecimal("10.01")));
+        assertFalse(range.test(Double.NaN));
+        assertTrue(range.test(10L));
+
+        Predicate<Object> blank = NullDefenseRules.<NotBlankTest>notBlank().compile(null, Object.class);
+        assertFalse(blank.test(" "));
+        assertFalse(blank.test(5));
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Invalid rules should throw")
+    void shouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseRules.<NotBlankTest>notBlank().compile(null, int.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseRules.<MinSizeTest>minSize(annotation -> -1).compile(null, List.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseRules.<RangeTest>range(annotation -> 2, annotation -> 1).compile(null, int.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseRules.<RangeTest>range(annotation -> 1, annotation -> 2).compile(null, String.class));
+        assertThrows(NullPointerException.class, () -> NullDefenseRules.minSize(null));
+
+        NullDefenseTypeAdapterFactory.Builder builder = NullDefenseTypeAdapterFactory.builder(MandatoryTest.class);
+        assertThrows(NullPointerException.class, () -> builder.rule(null, NullDefenseRules.notBlank()));
+        assertThrows(NullPointerException.class, () -> builder.rule(NotBlankTest.class, null));
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.model.ParentTest;
+import com.venomvendor.gson.util.PayloadGeneratorTest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput &amp; peak heap of reading generated payloads, from 1 KB up to {@value #MAX_BYTES_PROPERTY} bytes,
+ * by plain Gson &amp; by {@link NullDefenseIterator}. Curves are printed, &amp; written as CSV to
+ * {@value #REPORT_PROPERTY} when set, e.g. {@code ./gradlew test -PscalingMaxBytes=4294967296}.
+ */
+@DisplayName("Tests for scaling with size, depth & invalid records")
+class NullDefenseScalingTest extends BaseTest {
+
+    private static final String MAX_BYTES_PROPERTY = "nulldefense.scaling.maxBytes";
+    private static final String REPORT_PROPERTY = "nulldefense.scaling.report";
+    private static final long DEFAULT_MAX_BYTES = 1L << 20;
+    private static final long MIN_BYTES = 1L << 10;
+    /* Growth of size, between points of a curve */
+    private static final int STEP = 16;
+    /* Bytes read per point, small payloads are read repeatedly */
+    private static final long READ_BYTES = 4L << 20;
+
+    private final Gson defensive = new GsonBuilder()
+            .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class))
+            .create();
+    private final List<String> rows = new ArrayList<>();
+
+    @AfterAll
+    void report() throws IOException {
+        String report = System.getProperty(REPORT_PROPERTY);
+        if (report == null || rows.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(report);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        List<String> lines = new ArrayList<>(rows.size() + 1);
+        lines.add("parser,children,depth,invalidRatio,bytes,parents,mbPerSecond,peakHeapMb");
+        lines.addAll(rows);
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return sum of peak usage of heap pools, since last reset
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Reads all elements of payload once.
+     *
+     * @return valid parents read
+     */
+    private static long read(Gson gson, Path file, TypeToken<?> type, boolean defend) throws IOException {
+        long parents = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (defend) {
+                NullDefenseIterator<?> iterator = NullDefenseIterator.of(gson, in, type);
+                while (iterator.hasNext()) {
+                    parents += count(iterator.next());
+                }
+                return parents;
+            }
+            JsonReader reader = gson.newJsonReader(in);
+            reader.beginArray();
+            while (reader.hasNext()) {
+                parents += count(gson.getAdapter(type).read(reader));
+            }
+            reader.endArray();
+        }
+        return parents;
+    }
+
+    /**
+     * @return non null parents within an element
+     */
+    private static long count(Object element) {
+        if (element instanceof ParentTest) {
+            return 1;
+        }
+        long parents = 0;
+        if (element instanceof List) {
+            for (Object value : (List<?>) element) {
+                parents += count(value);
+            }
+        }
+        return parents;
+    }
+
+    /**
+     * Measures &amp; prints a curve, over payloads of growing size.
+     */
+    private void curve(PayloadGeneratorTest generator, int children, int depth, double invalidRatio)
+            throws IOException {
+        long maxBytes = Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES);
+        TypeToken<?> type = TypeToken.get(generator.elementType());
+        Path file = Files.createTempFile("null-defense-", ".json");
+        try {
+            for (long bytes = MIN_BYTES; bytes <= maxBytes; bytes *= STEP) {
+                PayloadGeneratorTest.Summary summary = generator.fill(file, bytes);
+                long passes = Math.max(1, READ_BYTES / summary.bytes());
+                point("plain", parser, file, type, false, passes, summary, children, depth, invalidRatio);
+                long parents = point("nullDefense", defensive, file, type, true, passes, summary,
+                        children, depth, invalidRatio);
+                if (depth == 0) {
+                    assertEquals(summary.validParents(), parents);
+                }
+                if (bytes > Long.MAX_VALUE / STEP) {
+                    break;
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * @return valid parents read by last pass
+     */
+    private long point(String name, Gson gson, Path file, TypeToken<?> type, boolean defend, long passes,
+                       PayloadGeneratorTest.Summary summary, int children, int depth, double invalidRatio)
+            throws IOException {
+        // Warms up
+        long parents = read(gson, file, type, defend);
+        resetPeakHeap();
+        long start = System.nanoTime();
+        for (long pass = 0; pass < passes; pass++) {
+            parents = read(gson, file, type, defend);
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        double mbPerSecond = summary.bytes() * passes / (elapsed / 1e9) / (1 << 20);
+        double peakHeapMb = peakHeap() / (double) (1 << 20);
+
+        String row = String.format(Locale.ROOT, "%s,%d,%d,%.2f,%d,%d,%.1f,%.1f", name, children, depth,
+                invalidRatio, summary.bytes(), summary.parents(), mbPerSecond, peakHeapMb);
+        rows.add(row);
+        return parents;
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Same seed should generate same payload, of at least requested size")
+    void shouldGenerateDeterministically() throws IOException {
+        PayloadGeneratorTest generator = PayloadGeneratorTest.of(10, 1, 0.3);
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        PayloadGeneratorTest.Summary summary = generator.fill(first, 64 << 10);
+        generator.fill(second, 64 << 10);
+        assertEquals(first.toString(), second.toString());
+        assertEquals(first.toString().length(), summary.bytes());
+        assertTrue(summary.bytes() >= 64 << 10);
+        assertEquals(summary.elements() * PayloadGeneratorTest.FAN_OUT, summary.parents());
+
+        StringWriter other = new StringWriter();
+        PayloadGeneratorTest.of(10, 1, 0.3, 1L).fill(other, 64 << 10);
+        assertNotEquals(first.toString(), other.toString());
+
+        // Discarded children are exactly those counted as invalid
+        StringWriter single = new StringWriter();
+        summary = PayloadGeneratorTest.of(5, 0, 0.5).write(single, 200);
+        List<ParentTest> parents = defensive.fromJson(single.toString(),
+                new TypeToken<List<ParentTest>>() {
+                }.getType());
+        long validParents = parents.stream().filter(parent -> parent != null).count();
+        long validChildren = parents.stream().filter(parent -> parent != null)
+                .mapToLong(parent -> parent.getChildren().size())
+                .sum();
+        assertEquals(summary.validParents(), validParents);
+        assertEquals(summary.validChildren(), validChildren);
+        assertTrue(summary.validParents() < summary.parents());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Throughput & peak heap should be reported, by element count")
+    void shouldScaleWithElements() throws IOException {
+        for (int children : new int[]{1, 100}) {
+            curve(PayloadGeneratorTest.of(children, 0, 0.1), children, 0, 0.1);
+        }
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Throughput & peak heap should be reported, by nesting depth")
+    void shouldScaleWithDepth() throws IOException {
+        for (int depth : new int[]{1, 4}) {
+            curve(PayloadGeneratorTest.of(10, depth, 0.1), 10, depth, 0.1);
+        }
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Throughput & peak heap should be reported, by share of invalid records")
+    void shouldScaleWithInvalidRatio() throws IOException {
+        for (double invalidRatio : new double[]{0.0, 0.5, 0.9}) {
+            curve(PayloadGeneratorTest.of(10, 0, invalidRatio), 10, 0, invalidRatio);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.model.AccountTest;
+import com.venomvendor.gson.model.ChildTest;
+import com.venomvendor.gson.model.EntryTest;
+import com.venomvendor.gson.model.HouseholdTest;
+import com.venomvendor.gson.model.ParentTest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests for cleaning JSON without binding objects")
+class NullDefenseTransformerTest extends BaseTest {
+
+    private static final String CHILD = "{\"name\":\"Queen\",\"isMale\":false,\"age\":5,"
+            + "\"language\":{\"knownLanguages\":[\"Telugu\"],\"learning\":[\"French\",null]}}";
+
+    private final NullDefenseTypeAdapterFactory factory = NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+            .defendWhileWriting()
+            .build();
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+
+    private String transform(String input, Type type) {
+        StringWriter output = new StringWriter();
+        NullDefenseTransformer.of(factory, gson, TypeToken.get(type)).transform(new StringReader(input), output);
+        return output.toString();
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Output should match fromJson followed by toJson")
+    void shouldMatchRoundTrip() {
+        List<String> inputs = List.of(
+                "{\"name\":\"VenomVendor\",\"children\":[" + CHILD + "]}",
+                "{\"name\":\"VenomVendor\",\"children\":[" + CHILD + ",{\"name\":null,\"age\":5},null]}",
+                "{\"name\":\"VenomVendor\",\"children\":[{\"name\":\"Prince\",\"language\":{}}]}",
+                "{\"name\":\"VenomVendor\",\"children\":[]}",
+                "{\"name\":null,\"children\":[" + CHILD + "]}",
+                "{\"children\":[" + CHILD + "]}",
+                "null");
+
+        for (String input : inputs) {
+            assertEquals(gson.toJson(gson.fromJson(input, ParentTest.class)), transform(input, ParentTest.class),
+                    input);
+        }
+
+        String household = "{\"members\":{\"queen\":" + CHILD + ",\"prince\":{\"name\":null}},"
+                + "\"tags\":[null,\"royal\"],\"guests\":[null," + CHILD + "]}";
+        assertEquals(gson.toJson(gson.fromJson(household, HouseholdTest.class)),
+                transform(household, HouseholdTest.class));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Invalid elements are omitted, names which are not bound are copied")
+    void shouldCleanElements() {
+        String input = "[{\"name\":\"VenomVendor\",\"extra\":{\"a\":[1,null,true]},\"children\":[" + CHILD + "]},"
+                + "{\"name\":\"VenomVendor\",\"children\":[{\"name\":null}]},null]";
+        String expected = "[{\"name\":\"VenomVendor\",\"extra\":{\"a\":[1,null,true]},\"children\":[" + CHILD
+                .replace(",null", "") + "]}]";
+
+        assertEquals(expected, transform(input, new TypeToken<List<ParentTest>>() {
+        }.getType()));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Values read by other adapters should be copied verbatim, nested null included")
+    void shouldCopyValuesVerbatim() {
+        String input = "{\"name\":\"Entry\",\"payload\":{\"coords\":[1,null,3],\"next\":[[null]]}}";
+        assertEquals(input, transform(input, EntryTest.class));
+        // As kept by Gson itself
+        assertEquals(parser.toJson((Object) parser.fromJson(input, EntryTest.class))
+                .replace(".0", ""), transform(input, EntryTest.class));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Null is written when top level object is invalid")
+    void shouldWriteNull() {
+        NullDefenseTransformer transformer = NullDefenseTransformer.of(factory, gson, TypeToken.get(ParentTest.class));
+        StringWriter output = new StringWriter();
+        assertFalse(transformer.transform(new StringReader("{\"name\":\"VenomVendor\"}"), output));
+        assertEquals("null", output.toString());
+
+        output = new StringWriter();
+        assertTrue(transformer.transform(new StringReader("{\"name\":\"VenomVendor\",\"children\":[" + CHILD + "]}"),
+                output));
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Should throw JsonSyntaxException when JSON is malformed")
+    void shouldThrowForMalformedJson() {
+        assertThrows(JsonSyntaxException.class, () -> transform("{\"name\":\"VenomVendor\",", ParentTest.class));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Fields should be bound as by Gson, honouring its exclusions & alternate names")
+    void shouldBindFieldsAsGson() {
+        List<String> inputs = List.of(
+                "{\"login\":\"queen\",\"token\":\"t\"}",
+                "{\"user\":\"queen\",\"token\":\"t\"}",
+                "{\"email\":\"queen\"}",
+                "{\"token\":\"t\"}",
+                "{\"email\":null,\"token\":\"t\"}");
+        Gson transientGson = new GsonBuilder()
+                .excludeFieldsWithModifiers(Modifier.STATIC)
+                .registerTypeAdapterFactory(factory)
+                .create();
+
+        for (Gson current : List.of(gson, transientGson)) {
+            NullDefenseTransformer transformer = NullDefenseTransformer.of(factory, current,
+                    TypeToken.get(AccountTest.class));
+            for (String input : inputs) {
+                StringWriter output = new StringWriter();
+                AccountTest expected = current.fromJson(input, AccountTest.class);
+                assertEquals(expected != null, transformer.transform(new StringReader(input), output), input);
+                assertEquals(current.toJson(expected),
+                        current.toJson(current.fromJson(output.toString(), AccountTest.class)), input);
+            }
+        }
+
+        Gson skipping = new GsonBuilder()
+                .setExclusionStrategies(new ExclusionStrategy() {
+                    @Override
+                    public boolean shouldSkipField(FieldAttributes field) {
+                        return false;
+                    }
+
+                    @Override
+                    public boolean shouldSkipClass(Class<?> clz) {
+                        return clz == AccountTest.class;
+                    }
+                })
+                .registerTypeAdapterFactory(factory)
+                .create();
+        StringWriter output = new StringWriter();
+        NullDefenseTransformer.of(factory, skipping, new TypeToken<List<AccountTest>>() {
+        }).transform(new StringReader("[" + inputs.get(0) + "]"), output);
+        assertEquals("[]", output.toString());
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Should reject types having mandatory fields, which are read by custom adapters")
+    void shouldRejectCustomAdapters() {
+        JsonDeserializer<ChildTest> deserializer = (json, type, context) -> new ChildTest();
+        Gson custom = new GsonBuilder()
+                .registerTypeAdapter(ChildTest.class, deserializer)
+                .registerTypeAdapterFactory(factory)
+                .create();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseTransformer.of(factory, custom, TypeToken.get(HouseholdTest.class)));
+    }
+}
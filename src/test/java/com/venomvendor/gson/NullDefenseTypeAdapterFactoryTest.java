@@ -19,23 +19,39 @@ package com.venomvendor.gson;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
 import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.model.AccountTest;
 import com.venomvendor.gson.model.ChildTest;
+import com.venomvendor.gson.model.HouseholdTest;
+import com.venomvendor.gson.model.LanguageTest;
 import com.venomvendor.gson.model.ParentTest;
+import com.venomvendor.gson.model.PetTest;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -295,4 +311,567 @@ class NullDefenseTypeAdapterFactoryTest extends BaseTest {
             assertEquals(2001, parent.getChildren().size());
         });
     }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Types that can never be rejected are not wrapped")
+    void shouldNotWrapUnrejectableTypes() {
+        TypeAdapterFactory typeAdapter = new NullDefenseTypeAdapterFactory(MandatoryTest.class);
+        Gson gson = new Gson();
+
+        assertNull(typeAdapter.create(gson, TypeToken.get(int.class)));
+        assertNull(typeAdapter.create(gson, TypeToken.get(Integer.class)));
+        assertNull(typeAdapter.create(gson, TypeToken.get(ChildTest[].class)));
+
+        TypeAdapter<String> string = typeAdapter.create(gson, TypeToken.get(String.class));
+        assertSame(gson.getAdapter(String.class), string);
+
+        TypeAdapter<ParentTest> wrapped = typeAdapter.create(gson, TypeToken.get(ParentTest.class));
+        TypeAdapter<List<String>> list = typeAdapter.create(gson, new TypeToken<List<String>>() {
+        });
+        assertNotNull(list);
+        assertNotEquals(wrapped.getClass(), list.getClass());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Objects created while validating during read, should be same as plain GSON")
+    void validateWhileReadingTest() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                        .validateWhileReading())
+                .create();
+
+        String input = getInput("valid.json");
+        ParentTest testParent = parser.fromJson(input, ParentTest.class);
+
+        assertTimeout(ofSeconds(TIME_OUT), () -> {
+            ParentTest parent = gson.fromJson(input, ParentTest.class);
+            assertNotNull(parent);
+            assertEquals(testParent.getChildren().size(), parent.getChildren().size());
+            assertEquals(getKnownLanguage(testParent.getChildren().get(2), 0),
+                    getKnownLanguage(parent.getChildren().get(2), 0));
+
+            assertNull(gson.fromJson(getInput("missing-parent-name.json"), ParentTest.class));
+            assertEquals(1, gson.fromJson(getInput("missing-name-in-child.json"), ParentTest.class)
+                    .getChildren().size());
+            assertNull(gson.fromJson(getInput("missing-known-language-no-child.json"), ParentTest.class));
+
+            List<ChildTest> children = gson.fromJson(
+                    "[{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}},{\"name\":null}]",
+                    new TypeToken<List<ChildTest>>() {
+                    }.getType());
+            assertEquals("Queen", children.get(0).getName());
+            assertNull(children.get(1));
+
+            Map<String, ChildTest> family = gson.fromJson(
+                    "{\"queen\":{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}}}",
+                    new TypeToken<Map<String, ChildTest>>() {
+                    }.getType());
+            assertEquals("Queen", family.get("queen").getName());
+        });
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Rest of the object is skipped, once mandatory field is read as null")
+    void shouldSkipRejectedObject() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                        .validateWhileReading())
+                .create();
+
+        // `age` is not a number, reading it fails unless it is skipped.
+        String input = "{\"name\":null,\"children\":[{\"name\":\"Queen\",\"age\":\"unknown\"}]}";
+
+        assertThrows(JsonSyntaxException.class, () -> defensiveParser.fromJson(input, ParentTest.class));
+        assertNull(gson.fromJson(input, ParentTest.class));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Reader reused while validating during read, should be reset after failed reads & shared by maps")
+    void shouldReuseStreamingReader() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                        .validateWhileReading())
+                .create();
+        String malformed = "{\"name\":\"VenomVendor\",\"children\":[{\"name\":\"Queen\",\"age\":\"unknown\"}]}";
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson(malformed, ParentTest.class));
+
+        Type type = new TypeToken<Map<String, ChildTest>>() {
+        }.getType();
+        String input = "{\"a\":{\"name\":null,\"age\":\"unknown\"},"
+                + "\"b\":{\"name\":\"Prince\",\"language\":{\"knownLanguages\":[\"Telugu\"]}},"
+                + "\"c\":{\"name\":\"Princess\",\"language\":{\"knownLanguages\":null}}}";
+        Map<String, ChildTest> children = gson.fromJson(input, type);
+        assertNull(children.get("a"));
+        assertEquals("Prince", children.get("b").getName());
+        assertNull(children.get("c"));
+
+        assertNull(gson.fromJson(getInput("missing-parent-name.json"), ParentTest.class));
+        assertNotNull(gson.fromJson(getInput("valid.json"), ParentTest.class));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Objects validated in parallel, should be same as validated sequentially")
+    void validateInParallelTest() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                        .validateInParallel(pool, 2))
+                .create();
+
+        try {
+            String input = getInput("large-input.json");
+            ParentTest testParent = defensiveParser.fromJson(input, ParentTest.class);
+
+            assertTimeout(ofSeconds(5), () -> {
+                ParentTest parent = gson.fromJson(input, ParentTest.class);
+                assertNotNull(parent);
+                assertEquals(testParent.getChildren().size(), parent.getChildren().size());
+                for (int index = 0; index < parent.getChildren().size(); index++) {
+                    assertEquals(getName(testParent.getChildren().get(index)),
+                            getName(parent.getChildren().get(index)));
+                }
+
+                assertNull(gson.fromJson(getInput("missing-known-language-no-child.json"), ParentTest.class));
+
+                String children = "[{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}},"
+                        + "{\"name\":null},null,"
+                        + "{\"name\":\"Prince\",\"language\":{\"knownLanguages\":[\"Hindi\"]}}]";
+                List<ChildTest> list = gson.fromJson(children, new TypeToken<List<ChildTest>>() {
+                }.getType());
+                assertEquals(4, list.size());
+                assertEquals("Queen", getName(list.get(0)));
+                assertNull(list.get(1));
+                assertNull(list.get(2));
+                assertEquals("Prince", getName(list.get(3)));
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Objects nested in maps & arrays of elements validated in parallel, should be same as sequentially")
+    void validateNestedInParallelTest() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                        .validateInParallel(pool, 1))
+                .create();
+        Gson sequential = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class))
+                .create();
+        String queen = "{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}}";
+
+        try {
+            Type maps = new TypeToken<List<Map<String, ChildTest>>>() {
+            }.getType();
+            String input = "[{\"a\":" + queen + ",\"b\":{\"name\":\"Prince\"}},{\"c\":{\"name\":null}}]";
+            List<Map<String, ChildTest>> children = gson.fromJson(input, maps);
+            assertEquals("Queen", getName(children.get(0).get("a")));
+            assertNull(children.get(0).get("b"));
+            assertNull(children.get(1).get("c"));
+            assertEquals(sequential.toJson((Object) sequential.fromJson(input, maps)), gson.toJson(children));
+
+            Type arrays = new TypeToken<List<ChildTest[]>>() {
+            }.getType();
+            input = "[[" + queen + ",{\"name\":\"Prince\"}],[{\"name\":null}]]";
+            assertEquals(sequential.toJson((Object) sequential.fromJson(input, arrays)),
+                    gson.toJson((Object) gson.fromJson(input, arrays)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Should reject invalid parallel options")
+    void shouldRejectParallelOptions() {
+        NullDefenseTypeAdapterFactory typeAdapter = new NullDefenseTypeAdapterFactory(MandatoryTest.class);
+
+        assertThrows(NullPointerException.class, () -> typeAdapter.validateInParallel(null, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> typeAdapter.validateInParallel(ForkJoinPool.commonPool(), 0));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Null is removed from collections which are not mandatory, only when requested")
+    void compactAllCollectionsTest() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                        .compactAllCollections())
+                .create();
+
+        String input = "{\"knownLanguages\":[\"Telugu\",null],\"learning\":[null,\"Hindi\",null]}";
+
+        LanguageTest language = defensiveParser.fromJson(input, LanguageTest.class);
+        assertEquals(List.of("Telugu"), language.getKnownLanguages());
+        assertEquals(Arrays.asList(null, "Hindi", null), language.getLearning());
+
+        language = gson.fromJson(input, LanguageTest.class);
+        assertEquals(List.of("Telugu"), language.getKnownLanguages());
+        assertEquals(List.of("Hindi"), language.getLearning());
+
+        // Empty collections which are not mandatory are retained
+        language = gson.fromJson("{\"knownLanguages\":[\"Telugu\"],\"learning\":[null]}", LanguageTest.class);
+        assertTrue(language.getLearning().isEmpty());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Metrics count reads, discards & removed nulls per type")
+    void metricsTest() {
+        NullDefenseMetrics metrics = new NullDefenseMetrics();
+        NullDefenseMetrics streamingMetrics = new NullDefenseMetrics();
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                        .listener(metrics))
+                .create();
+        Gson streaming = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                        .validateWhileReading()
+                        .listener(streamingMetrics))
+                .create();
+
+        String input = "{\"name\":\"VenomVendor\",\"children\":["
+                + "{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}},"
+                + "{\"name\":null},null]}";
+
+        assertEquals(1, gson.fromJson(input, ParentTest.class).getChildren().size());
+        assertEquals(1, streaming.fromJson(input, ParentTest.class).getChildren().size());
+
+        NullDefenseMetrics.TypeMetrics parent = metrics.of(ParentTest.class);
+        assertEquals(1, parent.reads());
+        assertEquals(0, parent.discards());
+        assertEquals(2, parent.nullsRemoved());
+        assertTrue(parent.validationNanos() > 0);
+
+        NullDefenseMetrics.TypeMetrics child = metrics.of(ChildTest.class);
+        assertEquals(2, child.reads());
+        assertEquals(1, child.discards());
+        assertEquals(Map.of("name", 1L), child.discardsByField());
+        assertEquals(1, metrics.of(LanguageTest.class).reads());
+
+        child = streamingMetrics.of(ChildTest.class);
+        assertEquals(2, child.reads());
+        assertEquals(Map.of("name", 1L), child.discardsByField());
+
+        // Java field is reported, not its serialized name, whichever path rejects it
+        assertNull(gson.fromJson("{\"user\":null}", AccountTest.class));
+        assertNull(streaming.fromJson("{\"user\":null}", AccountTest.class));
+        assertEquals(Map.of("login", 1L), metrics.of(AccountTest.class).discardsByField());
+        assertEquals(Map.of("login", 1L), streamingMetrics.of(AccountTest.class).discardsByField());
+
+        // Types never seen are not retained
+        assertEquals(0, metrics.of(PetTest.class).reads());
+        assertFalse(metrics.all().containsKey(PetTest.class));
+
+        // Discards while writing are counted by rejecting field
+        NullDefenseMetrics writeMetrics = new NullDefenseMetrics();
+        Gson writing = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                        .defendWhileWriting()
+                        .listener(writeMetrics))
+                .create();
+        ChildTest unnamed = new ChildTest();
+        assertEquals("null", writing.toJson(unnamed));
+        assertEquals(Map.of("name", 1L), writeMetrics.of(ChildTest.class).discardsByField());
+        // Tolerated, when reported by a custom source
+        writeMetrics.onDiscard(ChildTest.class, null);
+        assertEquals(2, writeMetrics.of(ChildTest.class).discards());
+
+        assertThrows(NullPointerException.class,
+                () -> new NullDefenseTypeAdapterFactory(MandatoryTest.class).listener(null));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Diagnostics report path & field of each discard")
+    void diagnosticsTest() {
+        List<String> discards = new CopyOnWriteArrayList<>();
+        NullDefenseListener listener = new NullDefenseListener() {
+            @Override
+            public void onDiscard(Class<?> type, String field, String path) {
+                discards.add(type.getSimpleName() + "." + field + "@" + path);
+            }
+        };
+        NullDefenseTypeAdapterFactory factory = NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                .listener(listener)
+                .diagnostics(1.0)
+                .build();
+
+        String input = "{\"name\":\"VenomVendor\",\"children\":["
+                + "{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}},"
+                + "{\"name\":\"Prince\",\"language\":{\"knownLanguages\":[null]}},{\"name\":null}]}";
+        List<String> expected = List.of("LanguageTest.knownLanguages@$.children[1].language",
+                "ChildTest.language@$.children[1]", "ChildTest.name@$.children[2]");
+
+        new GsonBuilder().registerTypeAdapterFactory(factory).create().fromJson(input, ParentTest.class);
+        assertEquals(expected, discards);
+
+        discards.clear();
+        new GsonBuilder().registerTypeAdapterFactory(factory.validateWhileReading()).create()
+                .fromJson(input, ParentTest.class);
+        assertEquals(List.of("LanguageTest.knownLanguages@$.children[1].language",
+                "ChildTest.language@$.children[1]", "ChildTest.name@$.children[2]"), discards);
+
+        discards.clear();
+        new GsonBuilder().registerTypeAdapterFactory(factory.validateInParallel(ForkJoinPool.commonPool(), 1))
+                .create().fromJson(input, ParentTest.class);
+        assertEquals(Set.copyOf(expected), Set.copyOf(discards));
+
+        // Off unless requested
+        discards.clear();
+        new GsonBuilder().registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class)
+                .listener(listener)).create().fromJson(input, ParentTest.class);
+        assertTrue(discards.isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> factory.diagnostics(0));
+        assertThrows(IllegalArgumentException.class, () -> factory.diagnostics(1.5));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Options are immutable, changing them returns a copy")
+    void builderTest() {
+        NullDefenseTypeAdapterFactory removing = NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                .build();
+        NullDefenseTypeAdapterFactory retaining = removing.retainEmptyCollection();
+        assertNotSame(removing, retaining);
+
+        NullDefenseTypeAdapterFactory.Builder builder = retaining.toBuilder();
+        NullDefenseTypeAdapterFactory built = builder.build();
+        builder.removeEmptyCollection();
+
+        String input = getInput("empty-collection.json");
+        Gson removingGson = new GsonBuilder().registerTypeAdapterFactory(removing).create();
+        Gson retainingGson = new GsonBuilder().registerTypeAdapterFactory(retaining).create();
+        Gson builtGson = new GsonBuilder().registerTypeAdapterFactory(built).create();
+
+        assertNull(removingGson.fromJson(input, ParentTest.class));
+        assertTrue(retainingGson.fromJson(input, ParentTest.class).getChildren().isEmpty());
+        assertTrue(builtGson.fromJson(input, ParentTest.class).getChildren().isEmpty());
+
+        assertThrows(NullPointerException.class, () -> NullDefenseTypeAdapterFactory.builder(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseTypeAdapterFactory.builder(MandatoryTest.class).maxCachedTypes(0));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Mandatory fields are cached per class, within maximum")
+    void cacheStatsTest() {
+        NullDefenseTypeAdapterFactory factory = new NullDefenseTypeAdapterFactory(MandatoryTest.class);
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+        String input = getInput("valid.json");
+
+        gson.fromJson(input, ParentTest.class);
+        long misses = factory.cacheStats().misses();
+        gson.fromJson(input, ParentTest.class);
+
+        NullDefenseCacheStats stats = factory.cacheStats();
+        assertEquals(misses, stats.misses());
+        // Lookups are not counted, unless diagnosed
+        assertEquals(-1, stats.hits());
+        assertTrue(Double.isNaN(stats.hitRate()));
+        assertEquals(0, stats.evictions());
+
+        factory = factory.toBuilder().listener(new NullDefenseListener() { }).diagnostics(1.0).build();
+        gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+        gson.fromJson(input, ParentTest.class);
+        gson.fromJson(input, ParentTest.class);
+        assertTrue(factory.cacheStats().hits() > 0);
+
+        factory = factory.toBuilder().maxCachedTypes(2).build();
+        gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+        gson.fromJson(input, ParentTest.class);
+
+        stats = factory.cacheStats();
+        assertEquals(2, stats.size());
+        // Parent, child & language do not fit
+        assertTrue(stats.evictions() > 0);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Mandatory fields of superclasses are validated")
+    void inheritedFieldsTest() {
+        Gson streaming = new GsonBuilder()
+                .registerTypeAdapterFactory(NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                        .validateWhileReading()
+                        .build())
+                .create();
+
+        String valid = "{\"_id\":\"42\",\"name\":\"Tom\"}";
+        String missingId = "{\"name\":\"Tom\"}";
+        String nullId = "{\"_id\":null,\"name\":\"Tom\"}";
+
+        assertEquals("42", defensiveParser.fromJson(valid, PetTest.class).getId());
+        assertNull(defensiveParser.fromJson(missingId, PetTest.class));
+        assertNull(defensiveParser.fromJson(nullId, PetTest.class));
+
+        assertEquals("42", streaming.fromJson(valid, PetTest.class).getId());
+        assertNull(streaming.fromJson(missingId, PetTest.class));
+        assertNull(streaming.fromJson(nullId, PetTest.class));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Null is removed from maps & arrays, empty ones are discarded")
+    void mapAndArrayTest() {
+        String child = "{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}}";
+        String input = "{\"members\":{\"queen\":" + child + ",\"prince\":{\"name\":null}},"
+                + "\"tags\":[null,\"royal\",null],\"guests\":[null," + child + "]}";
+
+        HouseholdTest household = defensiveParser.fromJson(input, HouseholdTest.class);
+        assertNotNull(household);
+        assertEquals(Set.of("queen"), household.getMembers().keySet());
+        assertArrayEquals(new String[]{"royal"}, household.getTags());
+        // Not mandatory
+        assertEquals(2, household.getGuests().length);
+
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                        .compactAllCollections()
+                        .build())
+                .create();
+        household = gson.fromJson(input, HouseholdTest.class);
+        assertEquals(1, household.getGuests().length);
+        assertEquals(ChildTest[].class, household.getGuests().getClass());
+
+        String noMembers = "{\"members\":{\"prince\":{\"name\":null}},\"tags\":[\"royal\"]}";
+        String noTags = "{\"members\":{\"queen\":" + child + "},\"tags\":[null]}";
+        assertNull(defensiveParser.fromJson(noMembers, HouseholdTest.class));
+        assertNull(defensiveParser.fromJson(noTags, HouseholdTest.class));
+
+        Gson retaining = new GsonBuilder()
+                .registerTypeAdapterFactory(NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                        .retainEmptyCollection()
+                        .build())
+                .create();
+        assertTrue(retaining.fromJson(noMembers, HouseholdTest.class).getMembers().isEmpty());
+        assertEquals(0, retaining.fromJson(noTags, HouseholdTest.class).getTags().length);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Invalid objects & null elements are omitted while writing, only when requested")
+    void defendWhileWritingTest() {
+        String child = "{\"name\":\"Queen\",\"isMale\":false,\"age\":0,\"language\":{\"knownLanguages\":[\"Telugu\"]}}";
+        String input = "{\"members\":{\"queen\":" + child + ",\"prince\":{\"name\":null}},"
+                + "\"tags\":[null,\"royal\",null],\"guests\":[null,{\"name\":null}," + child + "]}";
+        HouseholdTest household = new Gson().fromJson(input, HouseholdTest.class);
+
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                        .defendWhileWriting()
+                        .build())
+                .create();
+        String expected = "{\"members\":{\"queen\":" + child + "},"
+                + "\"tags\":[\"royal\"],\"guests\":[" + child + "]}";
+        assertEquals(expected, gson.toJson(household));
+        // Written as is, when not requested
+        Gson plain = new GsonBuilder()
+                .registerTypeAdapterFactory(new NullDefenseTypeAdapterFactory(MandatoryTest.class))
+                .create();
+        assertEquals(new Gson().toJson(household), plain.toJson(household));
+
+        // Mandatory array without valid elements
+        household = new Gson().fromJson("{\"members\":{\"queen\":" + child + "},\"tags\":[null]}",
+                HouseholdTest.class);
+        assertEquals("null", gson.toJson(household));
+        assertEquals("[]", gson.toJson(List.of(household), new TypeToken<List<HouseholdTest>>() {
+        }.getType()));
+        assertEquals("[\"royal\"]", gson.toJson(new String[]{null, "royal"}));
+
+        // Mandatory nested object, invalid itself
+        String prince = "{\"name\":\"Prince\",\"isMale\":true,\"age\":1,\"language\":{\"knownLanguages\":[null]}}";
+        household = new Gson().fromJson("{\"members\":{\"queen\":" + child + ",\"prince\":" + prince + "},"
+                + "\"tags\":[\"royal\"]}", HouseholdTest.class);
+        String written = gson.toJson(household);
+        assertEquals("{\"members\":{\"queen\":" + child + "},\"tags\":[\"royal\"]}", written);
+        assertEquals(written, gson.toJson(gson.fromJson(written, HouseholdTest.class)));
+
+        // Key & value pairs of maps having complex keys are positional, null is kept
+        Gson complex = new GsonBuilder()
+                .enableComplexMapKeySerialization()
+                .registerTypeAdapterFactory(NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                        .defendWhileWriting()
+                        .build())
+                .create();
+        Type mapType = new TypeToken<Map<List<String>, ChildTest>>() {
+        }.getType();
+        Map<List<String>, ChildTest> map = new LinkedHashMap<>();
+        map.put(List.of("a"), new ChildTest());
+        map.put(Arrays.asList("b", null), new Gson().fromJson(child, ChildTest.class));
+        written = complex.toJson(map, mapType);
+        assertEquals("[[[\"a\"],null],[[\"b\"]," + child + "]]", written);
+        Map<List<String>, ChildTest> read = complex.fromJson(written, mapType);
+        assertEquals(2, read.size());
+        assertNull(read.get(List.of("a")));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Objects validated in adaptive order, should be same as in declaration order")
+    void adaptiveFieldOrderTest() {
+        Gson adaptive = new GsonBuilder()
+                .registerTypeAdapterFactory(NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                        .adaptiveFieldOrder()
+                        .build())
+                .create();
+        String child = "{\"name\":\"Queen\",\"language\":{\"knownLanguages\":[\"Telugu\"]}}";
+        StringBuilder input = new StringBuilder("[");
+        for (int index = 0; index < 3 * 1024; index++) {
+            if (index > 0) {
+                input.append(',');
+            }
+            // Mostly rejected by last field
+            input.append(index % 4 == 0 ? "{\"name\":null}" : index % 4 == 1 ? child
+                    : "{\"name\":\"Prince\",\"language\":null}");
+        }
+        Type type = new TypeToken<List<ChildTest>>() {
+        }.getType();
+
+        List<ChildTest> expected = defensiveParser.fromJson(input.append(']').toString(), type);
+        List<ChildTest> actual = adaptive.fromJson(input.toString(), type);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(parser.toJson(expected), parser.toJson(actual));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Objects not read through Gson are validated & cleaned as if they were")
+    void sanitizeTest() {
+        NullDefenseTypeAdapterFactory factory = new NullDefenseTypeAdapterFactory(MandatoryTest.class);
+        String input = getInput("missing-name-in-child.json");
+
+        ParentTest cached = parser.fromJson(input, ParentTest.class);
+        assertTrue(factory.validate(cached));
+        assertEquals(parser.toJson(parser.fromJson(input, ParentTest.class)), parser.toJson(cached));
+
+        assertSame(cached, factory.sanitize(cached));
+        assertEquals(parser.toJson(defensiveParser.fromJson(input, ParentTest.class)), parser.toJson(cached));
+        // Already clean
+        assertSame(cached, factory.sanitize(cached));
+
+        PetTest pet = new PetTest();
+        assertFalse(factory.validate(pet));
+        assertNull(factory.sanitize(pet));
+        pet.setId("1");
+        pet.setName("Tommy");
+        assertSame(pet, factory.sanitize(pet));
+
+        ParentTest invalid = parser.fromJson(getInput("missing-known-language-no-child.json"), ParentTest.class);
+        assertFalse(factory.validate(invalid));
+        assertNull(factory.sanitize(invalid));
+        assertNull(factory.sanitize(null));
+        assertFalse(factory.validate(null));
+    }
 }
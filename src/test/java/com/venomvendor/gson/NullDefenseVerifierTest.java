@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.annotation.MinSizeTest;
+import com.venomvendor.gson.model.AccountTest;
+import com.venomvendor.gson.model.ChildTest;
+import com.venomvendor.gson.model.HouseholdTest;
+import com.venomvendor.gson.model.ParentTest;
+import com.venomvendor.gson.model.PetTest;
+import com.venomvendor.gson.model.ProfileTest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests for verifying JSON without binding objects")
+class NullDefenseVerifierTest extends BaseTest {
+
+    private static final String CHILD = "{\"name\":\"Queen\",\"age\":5,\"language\":{\"knownLanguages\":[\"Telugu\"]}}";
+
+    private final NullDefenseTypeAdapterFactory factory = new NullDefenseTypeAdapterFactory(MandatoryTest.class);
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+
+    private NullDefenseVerifier.Verdict verify(String input, Class<?> type) {
+        return NullDefenseVerifier.of(factory, gson, TypeToken.get(type)).verify(new StringReader(input));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Verdict should match result of fromJson")
+    void shouldMatchFromJson() {
+        List<String> inputs = List.of(
+                "{\"name\":\"VenomVendor\",\"children\":[" + CHILD + "]}",
+                "{\"name\":\"VenomVendor\",\"children\":[" + CHILD + ",{\"name\":null},null]}",
+                "{\"name\":\"VenomVendor\",\"children\":[{\"name\":\"Prince\",\"language\":{}}]}",
+                "{\"name\":\"VenomVendor\",\"children\":[]}",
+                "{\"name\":null,\"children\":[" + CHILD + "]}",
+                "{\"children\":[" + CHILD + "]}",
+                "{\"name\":\"VenomVendor\",\"unknown\":{\"name\":null},\"children\":[" + CHILD + "]}",
+                "null");
+
+        for (String input : inputs) {
+            assertEquals(gson.fromJson(input, ParentTest.class) != null, verify(input, ParentTest.class).isValid(),
+                    input);
+        }
+        assertEquals(gson.fromJson(getInput("large-input.json"), ParentTest.class) != null,
+                verify(getInput("large-input.json"), ParentTest.class).isValid());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Violations are reported by path, including those of discarded elements")
+    void shouldReportPaths() {
+        String input = "{\"name\":\"VenomVendor\",\"children\":[" + CHILD + ",{\"name\":null,\"age\":5}]}";
+        NullDefenseVerifier.Verdict verdict = verify(input, ParentTest.class);
+        assertTrue(verdict.isValid());
+        assertEquals(List.of("$.children[1].name"), verdict.violations());
+
+        verdict = verify("{\"children\":[{\"name\":\"Prince\",\"language\":{\"knownLanguages\":[null]}}]}",
+                ParentTest.class);
+        assertFalse(verdict.isValid());
+        // Rest of a rejected object is skipped
+        assertEquals(List.of("$.children[0].language.knownLanguages", "$.children[0].language",
+                "$.children"), verdict.violations());
+
+        assertEquals(List.of("$"), verify("null", ParentTest.class).violations());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Maps, arrays & inherited fields are verified like collections")
+    void shouldVerifyMapsAndArrays() {
+        String valid = "{\"members\":{\"queen\":" + CHILD + ",\"prince\":{\"name\":null}},\"tags\":[null,\"royal\"]}";
+        assertTrue(verify(valid, HouseholdTest.class).isValid());
+        assertEquals(List.of("$.members.prince.name"), verify(valid, HouseholdTest.class).violations());
+
+        String noTags = "{\"members\":{\"queen\":" + CHILD + "},\"tags\":[null]}";
+        assertFalse(verify(noTags, HouseholdTest.class).isValid());
+        assertEquals(List.of("$.tags"), verify(noTags, HouseholdTest.class).violations());
+
+        assertTrue(verify("{\"_id\":\"1\",\"name\":\"Tom\"}", PetTest.class).isValid());
+        assertEquals(List.of("$._id"), verify("{\"name\":\"Tom\"}", PetTest.class).violations());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Collections are never rejected, only their elements are")
+    void shouldVerifyCollections() {
+        NullDefenseVerifier verifier = NullDefenseVerifier.of(factory, gson, new TypeToken<List<ParentTest>>() {
+        });
+        NullDefenseVerifier.Verdict verdict = verifier.verify(new StringReader("[{\"name\":null},null]"));
+        assertTrue(verdict.isValid());
+        assertEquals(List.of("$[0].name"), verdict.violations());
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Should throw JsonSyntaxException when JSON cannot be bound")
+    void shouldThrowForMalformedJson() {
+        assertThrows(JsonSyntaxException.class, () -> verify("{\"name\":\"VenomVendor\",", ParentTest.class));
+        assertThrows(JsonSyntaxException.class, () -> verify("[]", ParentTest.class));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Fields should be bound as by Gson, honouring its exclusions & alternate names")
+    void shouldBindFieldsAsGson() {
+        List<String> inputs = List.of(
+                "{\"login\":\"queen\",\"token\":\"t\"}",
+                "{\"user\":\"queen\",\"token\":\"t\"}",
+                "{\"email\":\"queen\"}",
+                "{\"token\":\"t\"}",
+                "{\"email\":null,\"token\":\"t\"}");
+        Gson transientGson = new GsonBuilder()
+                .excludeFieldsWithModifiers(Modifier.STATIC)
+                .registerTypeAdapterFactory(factory)
+                .create();
+
+        for (Gson current : List.of(gson, transientGson)) {
+            NullDefenseVerifier verifier = NullDefenseVerifier.of(factory, current, TypeToken.get(AccountTest.class));
+            for (String input : inputs) {
+                assertEquals(current.fromJson(input, AccountTest.class) != null,
+                        verifier.verify(new StringReader(input)).isValid(), input);
+            }
+        }
+        assertEquals(List.of("$.token"), verify("{\"user\":\"queen\",\"token\":\"t\"}", AccountTest.class)
+                .violations());
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Should reject types having mandatory fields, which are read by custom adapters")
+    void shouldRejectCustomAdapters() {
+        JsonDeserializer<ChildTest> deserializer = (json, type, context) -> new ChildTest();
+        Gson custom = new GsonBuilder()
+                .registerTypeAdapter(ChildTest.class, deserializer)
+                .registerTypeAdapterFactory(factory)
+                .create();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseVerifier.of(factory, custom, TypeToken.get(ParentTest.class)));
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseVerifier.of(factory, custom, new TypeToken<Map<String, ChildTest>>() {
+                }));
+        assertTrue(NullDefenseVerifier.of(factory, custom, TypeToken.get(PetTest.class))
+                .verify(new StringReader("{\"_id\":\"1\",\"name\":\"Tom\"}")).isValid());
+    }
+
+    @Test
+    @Tag("-ve")
+    @DisplayName("Types having fields checked by rules should be rejected up front")
+    void shouldRejectRules() {
+        NullDefenseTypeAdapterFactory ruled = NullDefenseTypeAdapterFactory.builder(MandatoryTest.class)
+                .rule(MinSizeTest.class, NullDefenseRules.minSize(MinSizeTest::value))
+                .build();
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(ruled).create();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseVerifier.of(ruled, gson, TypeToken.get(ProfileTest.class)));
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseVerifier.of(ruled, gson, new TypeToken<List<ProfileTest>>() {
+                }));
+        assertThrows(IllegalArgumentException.class,
+                () -> NullDefenseTransformer.of(ruled, gson, TypeToken.get(ProfileTest.class)));
+        // Types without rules are verified as usual
+        assertTrue(NullDefenseVerifier.of(ruled, gson, TypeToken.get(ParentTest.class))
+                .verify(new StringReader(getInput("valid.json"))).isValid());
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson;
+
+import com.google.gson.FieldNamingPolicy;
+import com.venomvendor.gson.ValidationPlan.MandatoryField;
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.model.ChildTest;
+import com.venomvendor.gson.model.HouseholdTest;
+import com.venomvendor.gson.model.LanguageTest;
+import com.venomvendor.gson.model.NodeTest;
+import com.venomvendor.gson.model.ParentTest;
+import com.venomvendor.gson.model.PetTest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests for resolving mandatory fields once per class")
+class ValidationPlanTest {
+
+    private static List<String> names(ValidationPlan plan) {
+        return Arrays.stream(plan.fields())
+                .map(mandatory -> mandatory.name)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Class level annotation marks all non primitive fields")
+    void classLevelPlan() {
+        ValidationPlan plan = ValidationPlan.of(ChildTest.class, MandatoryTest.class);
+
+        assertEquals(Arrays.asList("name", "language"), names(plan));
+        for (MandatoryField mandatory : plan.fields()) {
+            assertFalse(mandatory.container);
+        }
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Field level annotation marks only annotated fields")
+    void fieldLevelPlan() {
+        ValidationPlan plan = ValidationPlan.of(LanguageTest.class, MandatoryTest.class);
+
+        assertEquals(Arrays.asList("knownLanguages"), names(plan));
+        assertTrue(plan.fields()[0].container);
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Containers which are not mandatory are included only when requested")
+    void containersPlan() {
+        assertEquals(0, ValidationPlan.of(LanguageTest.class, MandatoryTest.class).containers().length);
+
+        MandatoryField[] containers = ValidationPlan.of(LanguageTest.class, MandatoryTest.class, true)
+                .containers();
+        assertEquals(1, containers.length);
+        assertEquals("learning", containers[0].name);
+
+        // All fields of marked class are mandatory
+        assertEquals(0, ValidationPlan.of(ChildTest.class, MandatoryTest.class, true).containers().length);
+        assertSame(ValidationPlan.EMPTY, ValidationPlan.of(String.class, MandatoryTest.class, true));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Fields of superclasses are part of the plan")
+    void inheritedPlan() {
+        ValidationPlan plan = ValidationPlan.of(PetTest.class, MandatoryTest.class);
+
+        assertEquals(Arrays.asList("name", "id"), names(plan));
+        assertEquals(Map.of("name", "name", "_id", "id"),
+                plan.serializedNames(PetTest.class, FieldNamingPolicy.IDENTITY));
+
+        PetTest pet = new PetTest();
+        pet.setId("42");
+        assertEquals("42", plan.fields()[1].accessor.get(pet));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Class without annotation has nothing to validate")
+    void emptyPlan() {
+        assertSame(ValidationPlan.EMPTY, ValidationPlan.of(String.class, MandatoryTest.class));
+        assertTrue(ValidationPlan.EMPTY.isEmpty());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Plan is resolved once & reused")
+    void cachedPlan() {
+        PlanCache plans = new PlanCache(MandatoryTest.class, false, false, 16, false);
+
+        ValidationPlan plan = plans.get(ParentTest.class);
+
+        assertSame(plan, plans.get(ParentTest.class));
+        assertEquals(Arrays.asList("name", "children"), names(plan));
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Cache counts hits & misses, evicting oldest plans beyond maximum")
+    void cacheStats() {
+        PlanCache plans = new PlanCache(MandatoryTest.class, false, false, 2, true);
+
+        ValidationPlan parent = plans.get(ParentTest.class);
+        plans.get(ParentTest.class);
+        plans.get(ChildTest.class);
+        NullDefenseCacheStats stats = plans.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(0, stats.evictions());
+        assertEquals(2, stats.size());
+
+        plans.get(LanguageTest.class);
+        stats = plans.stats();
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.size());
+
+        // Resolved again, once evicted
+        assertNotSame(parent, plans.get(ParentTest.class));
+        assertEquals(4, plans.stats().misses());
+        assertEquals(0.2, plans.stats().hitRate());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Cache size stays exact while classes are resolved concurrently")
+    void concurrentCacheStats() throws Exception {
+        PlanCache plans = new PlanCache(MandatoryTest.class, false, false, 3, true);
+        List<Class<?>> classes = List.of(ParentTest.class, ChildTest.class, LanguageTest.class, PetTest.class,
+                HouseholdTest.class, NodeTest.class);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < threads; thread++) {
+                int offset = thread;
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    for (int index = 0; index < 5_000; index++) {
+                        plans.get(classes.get((index + offset) % classes.size()));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        NullDefenseCacheStats stats = plans.stats();
+        assertTrue(stats.size() <= 3, "size: " + stats.size());
+        assertEquals(stats.misses(), stats.size() + stats.evictions());
+        assertEquals(threads * 5_000L, stats.hits() + stats.misses());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Adaptive plan checks most rejecting field first, once reordered")
+    void adaptivePlan() {
+        ValidationPlan plan = ValidationPlan.of(ParentTest.class, MandatoryTest.class).adaptive();
+        MandatoryField[] fields = plan.fields();
+        assertEquals(Arrays.asList("name", "children"), names(plan));
+        assertSame(fields, plan.checkOrder());
+
+        for (int check = 1; check < ValidationPlan.REORDER_INTERVAL; check++) {
+            plan.checked(check % 3 == 0 ? null : fields[1]);
+        }
+        // Not yet reordered, fewer checks than samples needed
+        assertSame(fields[0], plan.checkOrder()[0]);
+
+        // Sampled checks reach reorder interval many times over
+        for (int check = 0; check < ValidationPlan.REORDER_INTERVAL * ValidationPlan.SAMPLED_CHECKS * 8; check++) {
+            plan.checked(check % 3 == 0 ? null : fields[1]);
+        }
+        assertSame(fields[1], plan.checkOrder()[0]);
+        assertSame(fields[0], plan.checkOrder()[1]);
+        // Declaration order is kept
+        assertEquals(Arrays.asList("name", "children"), names(plan));
+
+        // Single field has nothing to reorder
+        ValidationPlan single = ValidationPlan.of(LanguageTest.class, MandatoryTest.class);
+        assertSame(single, single.adaptive());
+    }
+
+    @Test
+    @Tag("+ve")
+    @DisplayName("Accessor reads private fields")
+    void accessorTest() {
+        ParentTest parent = new ParentTest();
+        parent.setName("VenomVendor");
+
+        MandatoryField[] fields = ValidationPlan.of(ParentTest.class, MandatoryTest.class).fields();
+
+        assertEquals("VenomVendor", fields[0].accessor.get(parent));
+        assertNull(fields[1].accessor.get(parent));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson.model;
+
+import java.util.List;
+
+public class EnvelopeTest {
+
+    private List<ChildTest> items;
+    private EnvelopeTest inner;
+
+    public List<ChildTest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ChildTest> items) {
+        this.items = items;
+    }
+
+    public EnvelopeTest getInner() {
+        return inner;
+    }
+
+    public void setInner(EnvelopeTest inner) {
+        this.inner = inner;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson.model;
+
+import com.venomvendor.gson.annotation.MandatoryTest;
+
+import java.util.Map;
+
+public class HouseholdTest {
+
+    @MandatoryTest
+    private Map<String, ChildTest> members;
+    @MandatoryTest
+    private String[] tags;
+    private ChildTest[] guests;
+
+    public Map<String, ChildTest> getMembers() {
+        return members;
+    }
+
+    public void setMembers(Map<String, ChildTest> members) {
+        this.members = members;
+    }
+
+    public String[] getTags() {
+        return tags;
+    }
+
+    public void setTags(String[] tags) {
+        this.tags = tags;
+    }
+
+    public ChildTest[] getGuests() {
+        return guests;
+    }
+
+    public void setGuests(ChildTest[] guests) {
+        this.guests = guests;
+    }
+}
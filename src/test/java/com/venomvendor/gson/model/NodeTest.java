@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson.model;
+
+import com.venomvendor.gson.annotation.MandatoryTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NodeTest {
+
+    @MandatoryTest
+    private String name;
+    private NodeTest next;
+    private List<NodeTest> links = new ArrayList<>();
+
+    public NodeTest(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public NodeTest getNext() {
+        return next;
+    }
+
+    public void setNext(NodeTest next) {
+        this.next = next;
+    }
+
+    public List<NodeTest> getLinks() {
+        return links;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson.model;
+
+import com.venomvendor.gson.annotation.MandatoryTest;
+import com.venomvendor.gson.annotation.MinSizeTest;
+import com.venomvendor.gson.annotation.NotBlankTest;
+import com.venomvendor.gson.annotation.RangeTest;
+
+import java.util.List;
+
+public class ProfileTest {
+
+    @MandatoryTest
+    @NotBlankTest
+    private String name;
+
+    @MinSizeTest(2)
+    private List<String> tags;
+
+    @RangeTest(min = 0, max = 150)
+    private int age;
+
+    @RangeTest(min = 1, max = 10)
+    private Double rating;
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+}
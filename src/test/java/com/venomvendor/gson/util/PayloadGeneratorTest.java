@@ -0,0 +1,297 @@
+/*
+ * Copyright (C) 2018 VenomVendor.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.venomvendor.gson.util;
+
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import com.venomvendor.gson.model.ParentTest;
+
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates JSON shaped as {@link ParentTest}, {@code ChildTest} &amp; {@code LanguageTest}, streamed to a writer.
+ * <p>
+ * Payload is a top level array, whose elements are parents wrapped in {@code depth} arrays of {@value #FAN_OUT}
+ * elements each. A share of children is invalid, having a {@code null} name, no language or no known languages.
+ * A parent is invalid when none of its children is valid. Same seed yields same payload, byte for byte.
+ */
+public final class PayloadGeneratorTest {
+
+    /* Seed, unless changed */
+    public static final long SEED = 2018L;
+    /* Elements of every nested array */
+    public static final int FAN_OUT = 3;
+
+    private static final String[] NAMES = {"Queen", "Prince", "Princess", "King"};
+    private static final String[] LANGUAGES = {"Telugu", "Tamil", "English", "Sanskrit", "Kannada", "French"};
+
+    /* Children per parent */
+    private final int children;
+    /* Arrays wrapping parents, within top level array */
+    private final int depth;
+    /* Share of children, which are invalid */
+    private final double invalidRatio;
+    /* Seed of random */
+    private final long seed;
+
+    private PayloadGeneratorTest(int children, int depth, double invalidRatio, long seed) {
+        this.children = children;
+        this.depth = depth;
+        this.invalidRatio = invalidRatio;
+        this.seed = seed;
+    }
+
+    /**
+     * @param children     children per parent
+     * @param depth        arrays wrapping parents, within top level array
+     * @param invalidRatio share of children, which are invalid
+     * @return generator with {@value #SEED} as seed
+     */
+    public static PayloadGeneratorTest of(int children, int depth, double invalidRatio) {
+        return of(children, depth, invalidRatio, SEED);
+    }
+
+    /**
+     * @param children     children per parent
+     * @param depth        arrays wrapping parents, within top level array
+     * @param invalidRatio share of children, which are invalid
+     * @param seed         seed of random
+     * @return generator
+     */
+    public static PayloadGeneratorTest of(int children, int depth, double invalidRatio, long seed) {
+        if (children < 0 || depth < 0) {
+            throw new IllegalArgumentException("Children & depth cannot be negative");
+        }
+        if (invalidRatio < 0 || invalidRatio > 1) {
+            throw new IllegalArgumentException("Invalid ratio must be within 0 & 1: " + invalidRatio);
+        }
+        return new PayloadGeneratorTest(children, depth, invalidRatio, seed);
+    }
+
+    /**
+     * @return type of each element of top level array
+     */
+    public Type elementType() {
+        Type type = ParentTest.class;
+        for (int level = 0; level < depth; level++) {
+            type = TypeToken.getParameterized(List.class, type).getType();
+        }
+        return type;
+    }
+
+    /**
+     * @return type of whole payload
+     */
+    public Type type() {
+        return TypeToken.getParameterized(List.class, elementType()).getType();
+    }
+
+    /**
+     * @param out      writer receiving payload, not closed
+     * @param elements elements of top level array
+     * @return summary of payload
+     */
+    public Summary write(Writer out, long elements) throws IOException {
+        return write(out, elements, Long.MAX_VALUE);
+    }
+
+    /**
+     * Writes elements until payload has at least given size.
+     *
+     * @param out   writer receiving payload, not closed
+     * @param bytes minimum size of payload, exceeded by at most one element
+     * @return summary of payload
+     */
+    public Summary fill(Writer out, long bytes) throws IOException {
+        return write(out, Long.MAX_VALUE, bytes);
+    }
+
+    /**
+     * Same as {@link #fill(Writer, long)}, written to a file as UTF-8.
+     *
+     * @param file  file receiving payload, replaced if exists
+     * @param bytes minimum size of payload
+     * @return summary of payload
+     */
+    public Summary fill(Path file, long bytes) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return fill(out, bytes);
+        }
+    }
+
+    private Summary write(Writer out, long elements, long bytes) throws IOException {
+        CountingWriter counter = new CountingWriter(out);
+        JsonWriter writer = new JsonWriter(counter);
+        Summary summary = new Summary();
+        Random random = new Random(seed);
+
+        writer.beginArray();
+        for (long index = 0; index < elements && counter.count < bytes; index++) {
+            level(writer, random, summary, depth);
+            summary.elements++;
+        }
+        writer.endArray();
+        writer.flush();
+        summary.bytes = counter.count;
+        return summary;
+    }
+
+    private void level(JsonWriter writer, Random random, Summary summary, int level) throws IOException {
+        if (level == 0) {
+            parent(writer, random, summary);
+            return;
+        }
+        writer.beginArray();
+        for (int index = 0; index < FAN_OUT; index++) {
+            level(writer, random, summary, level - 1);
+        }
+        writer.endArray();
+    }
+
+    private void parent(JsonWriter writer, Random random, Summary summary) throws IOException {
+        writer.beginObject();
+        writer.name("name").value("VenomVendor " + summary.parents);
+        writer.name("children").beginArray();
+        int valid = 0;
+        for (int index = 0; index < children; index++) {
+            if (child(writer, random, index)) {
+                valid++;
+            }
+        }
+        writer.endArray();
+        writer.endObject();
+
+        summary.parents++;
+        summary.children += children;
+        if (valid > 0) {
+            summary.validParents++;
+            summary.validChildren += valid;
+        }
+    }
+
+    /**
+     * @return {@code true} if child is valid
+     */
+    private boolean child(JsonWriter writer, Random random, int index) throws IOException {
+        boolean invalid = random.nextDouble() < invalidRatio;
+        // Kind of defect, when invalid
+        int defect = invalid ? random.nextInt(3) : -1;
+
+        writer.beginObject();
+        writer.name("name");
+        if (defect == 0) {
+            writer.nullValue();
+        } else {
+            writer.value(NAMES[index % NAMES.length] + " " + index);
+        }
+        writer.name("isMale").value(random.nextBoolean());
+        writer.name("age").value(random.nextInt(100));
+        if (defect != 1) {
+            writer.name("language").beginObject();
+            writer.name("knownLanguages").beginArray();
+            int known = defect == 2 ? 0 : 1 + random.nextInt(3);
+            for (int language = 0; language < known; language++) {
+                writer.value(LANGUAGES[random.nextInt(LANGUAGES.length)]);
+            }
+            writer.endArray();
+            writer.name("learning").beginArray()
+                    .value(LANGUAGES[random.nextInt(LANGUAGES.length)])
+                    .nullValue()
+                    .endArray();
+            writer.endObject();
+        }
+        writer.endObject();
+        return !invalid;
+    }
+
+    /**
+     * Counts of a generated payload.
+     */
+    public static final class Summary {
+        /* Size in bytes, all characters are ASCII */
+        long bytes;
+        /* Elements of top level array */
+        long elements;
+        long parents;
+        long validParents;
+        long children;
+        /* Valid children of valid parents */
+        long validChildren;
+
+        public long bytes() {
+            return bytes;
+        }
+
+        public long elements() {
+            return elements;
+        }
+
+        public long parents() {
+            return parents;
+        }
+
+        public long validParents() {
+            return validParents;
+        }
+
+        public long children() {
+            return children;
+        }
+
+        public long validChildren() {
+            return validChildren;
+        }
+    }
+
+    /**
+     * Counts characters written.
+     */
+    private static final class CountingWriter extends FilterWriter {
+        private long count;
+
+        CountingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            out.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void write(String value, int offset, int length) throws IOException {
+            out.write(value, offset, length);
+            count += length;
+        }
+    }
+}